@@ -0,0 +1,455 @@
+package kth.csc.inda;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe graph with a fixed number of vertices implemented using
+ * open-addressing adjacency tables. Space complexity is &Theta;(n + m) where
+ * n is the number of vertices and m the number of edges.
+ *
+ * Writers lock only a stripe of the vertices, so edges out of different
+ * vertices can be added in parallel. Readers never lock: hasEdge, cost and
+ * degree see the latest completed write, and neighbors and forEachNeighbor
+ * are weakly consistent, they reflect some state of the vertex at or since
+ * the start of the iteration and never throw because of concurrent writes.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+public class ConcurrentHashGraph implements Graph {
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+    private static final int INITIAL_TABLE_SIZE = 4;
+
+    /**
+     * tables.get(v) holds the edges out of v, or null if v has never had an
+     * edge. A table is replaced by a larger one when it fills up; readers
+     * that hold the old table still see a consistent snapshot.
+     */
+    private final AtomicReferenceArray<Table> tables;
+    private final AtomicIntegerArray degrees;
+    private final Object[] locks;
+    private final LongAdder numEdges = new LongAdder();
+
+    /**
+     * An open-addressing table with linear probing. Keys and values are
+     * written by one thread at a time (holding the stripe lock) and read by
+     * any thread. A value is always written before its key, so a reader that
+     * finds a key also sees its value. A slot whose key is deleted is never
+     * given another key, only dropped by a rehash, so a reader that found a
+     * key in a slot can never read the value of another key from it.
+     */
+    private static final class Table {
+        final AtomicIntegerArray keys;
+        final AtomicIntegerArray values;
+        final int mask;
+        int used;   // slots that are not EMPTY; accessed under the lock only
+
+        Table(int capacity) {
+            keys = new AtomicIntegerArray(capacity);
+            values = new AtomicIntegerArray(capacity);
+            mask = capacity - 1;
+            for (int i = 0; i < capacity; i++)
+                keys.lazySet(i, EMPTY);
+        }
+
+        /**
+         * Returns the slot of w, or -1 if w is not in the table.
+         */
+        int find(int w) {
+            int pos = mix(w) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                int k = keys.get(pos);
+                if (k == w)
+                    return pos;
+                if (k == EMPTY)
+                    return -1;
+                pos = (pos + 1) & mask;
+            }
+            return -1;
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Constructs a ConcurrentHashGraph with n vertices and no edges. The
+     * number of lock stripes is chosen from the number of processors. Time
+     * complexity: O(n)
+     *
+     * @throws IllegalArgumentException if n < 0
+     */
+    public ConcurrentHashGraph(int n) {
+        this(n, 16 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a ConcurrentHashGraph with n vertices, no edges, and at
+     * least the given number of lock stripes. Time complexity: O(n)
+     *
+     * @throws IllegalArgumentException if n < 0 or stripes <= 0
+     */
+    public ConcurrentHashGraph(int n, int stripes) {
+        if (n < 0 || stripes <= 0)
+            throw new IllegalArgumentException("n = " + n + ", stripes = " + stripes);
+
+        tables = new AtomicReferenceArray<>(n);
+        degrees = new AtomicIntegerArray(n);
+        int size = Integer.highestOneBit(Math.min(stripes, 1 << 16) - 1) << 1;
+        locks = new Object[Math.max(size, 1)];
+        for (int i = 0; i < locks.length; i++)
+            locks[i] = new Object();
+    }
+
+    private Object lockFor(int v) {
+        return locks[v & (locks.length - 1)];
+    }
+
+    /**
+     * Add an edge without checking parameters.
+     */
+    private void addEdge(int from, int to, int cost) {
+        synchronized (lockFor(from)) {
+            Table t = tables.get(from);
+            if (t == null) {
+                t = new Table(INITIAL_TABLE_SIZE);
+                tables.set(from, t);
+            }
+
+            int slot = t.find(to);
+            if (slot >= 0) {
+                t.values.set(slot, cost);
+                return;
+            }
+
+            // Deleted slots are not reused: a lock-free reader may still be
+            // looking at the slot and would take the new value for the old key.
+            int pos = mix(to) & t.mask;
+            while (t.keys.get(pos) != EMPTY)
+                pos = (pos + 1) & t.mask;
+            t.used++;
+            t.values.set(pos, cost);
+            t.keys.set(pos, to);
+            degrees.set(from, degrees.get(from) + 1);
+            numEdges.increment();
+
+            if (4 * t.used > 3 * (t.mask + 1))
+                tables.set(from, rehash(t, degrees.get(from)));
+        }
+    }
+
+    /**
+     * Returns a new table holding the live entries of t, sized for
+     * degree entries at half load. Deleted slots are dropped.
+     */
+    private static Table rehash(Table t, int degree) {
+        int capacity = INITIAL_TABLE_SIZE;
+        while (capacity < 2 * degree)
+            capacity <<= 1;
+
+        Table copy = new Table(capacity);
+        for (int i = 0; i <= t.mask; i++) {
+            int k = t.keys.get(i);
+            if (k >= 0) {
+                int pos = mix(k) & copy.mask;
+                while (copy.keys.get(pos) != EMPTY)
+                    pos = (pos + 1) & copy.mask;
+                copy.values.lazySet(pos, t.values.get(i));
+                copy.keys.lazySet(pos, k);
+                copy.used++;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Remove an edge without checking parameters
+     */
+    private void removeEdge(int from, int to) {
+        synchronized (lockFor(from)) {
+            Table t = tables.get(from);
+            if (t == null)
+                return;
+
+            int slot = t.find(to);
+            if (slot >= 0) {
+                t.keys.set(slot, DELETED);
+                degrees.set(from, degrees.get(from) - 1);
+                numEdges.decrement();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(1).
+     */
+    @Override
+    public int numVertices() {
+        return degrees.length();
+    }
+
+    /**
+     * {@inheritDoc Graph} The value is exact only when no edges are being
+     * added or removed.
+     */
+    @Override
+    public int numEdges() {
+        return numEdges.intValue();
+    }
+
+    /**
+     * Check if a vertex is out of bounds
+     *
+     * @param v the vertex
+     * @return true if out of bounds, otherwise false
+     */
+    private boolean vertexOutOfBounds(int v) {
+        return (v < 0 || v >= numVertices());
+    }
+
+    /**
+     * {@inheritDoc Graph}
+     */
+    @Override
+    public int degree(int v) throws IllegalArgumentException {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        return degrees.get(v);
+    }
+
+    /**
+     * {@inheritDoc Graph} The iterator is weakly consistent.
+     */
+    @Override
+    public VertexIterator neighbors(int v) {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        return new neighborIterator(tables.get(v));
+    }
+
+    private static class neighborIterator implements VertexIterator {
+        private final Table table;
+        private int slot = -1;
+        private int next;
+
+        public neighborIterator(Table table) {
+            this.table = table;
+            advance();
+        }
+
+        private void advance() {
+            next = -1;
+            if (table == null)
+                return;
+            while (++slot <= table.mask) {
+                int k = table.keys.get(slot);
+                if (k >= 0) {
+                    next = k;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public int next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("no such element");
+            }
+
+            int w = next;
+            advance();
+            return w;
+        }
+    }
+
+    /**
+     * {@inheritDoc Graph} The traversal is weakly consistent.
+     */
+    @Override
+    public void forEachNeighbor(int v, IntIntConsumer onEdge) {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        Table t = tables.get(v);
+        if (t == null) {
+            return;
+        }
+        for (int i = 0; i <= t.mask; i++) {
+            int k = t.keys.get(i);
+            if (k >= 0) {
+                onEdge.accept(k, t.values.get(i));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc Graph} The copy is weakly consistent, so the number of
+     * vertices copied may differ from the degree reported by an earlier
+     * call if edges are being added or removed. The room in dst is checked
+     * against the number of neighbors found by a first pass over the table,
+     * and no more than that many are copied, so nothing is written if the
+     * check fails.
+     */
+    @Override
+    public int neighbors(int v, int[] dst, int offset) {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        Table t = tables.get(v);
+        int d = 0;
+        if (t != null) {
+            for (int i = 0; i <= t.mask; i++) {
+                if (t.keys.get(i) >= 0) {
+                    d++;
+                }
+            }
+        }
+        if (offset < 0 || offset > dst.length - d) {
+            throw new IndexOutOfBoundsException("offset = " + offset);
+        }
+
+        int copied = 0;
+        for (int i = 0; copied < d && i <= t.mask; i++) {
+            int k = t.keys.get(i);
+            if (k >= 0) {
+                dst[offset + copied++] = k;
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * {@inheritDoc Graph}
+     */
+    @Override
+    public boolean hasEdge(int v, int w) {
+        if (vertexOutOfBounds(v) || vertexOutOfBounds(w)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        Table t = tables.get(v);
+        return t != null && t.find(w) >= 0;
+    }
+
+    /**
+     * {@inheritDoc Graph}
+     */
+    @Override
+    public int cost(int v, int w) throws IllegalArgumentException {
+        if (vertexOutOfBounds(v) || vertexOutOfBounds(w)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        Table t = tables.get(v);
+        if (t == null) {
+            return NO_COST;
+        }
+        int slot = t.find(w);
+        return slot < 0 ? NO_COST : t.values.get(slot);
+    }
+
+    /**
+     * {@inheritDoc Graph}
+     */
+    @Override
+    public void add(int from, int to) throws IllegalArgumentException {
+        if (vertexOutOfBounds(from) || vertexOutOfBounds(to)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        addEdge(from, to, NO_COST);
+    }
+
+    /**
+     * {@inheritDoc Graph}
+     */
+    @Override
+    public void add(int from, int to, int c) throws IllegalArgumentException {
+        if (vertexOutOfBounds(from) || vertexOutOfBounds(to) || c < 0) {
+            throw new IllegalArgumentException("Illegal argument");
+        }
+
+        addEdge(from, to, c);
+    }
+
+    /**
+     * {@inheritDoc Graph} The two edges are added one at a time, so a
+     * concurrent reader may see one without the other.
+     */
+    @Override
+    public void addBi(int v, int w) {
+        if (vertexOutOfBounds(v) || vertexOutOfBounds(w)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        addEdge(v, w, NO_COST);
+        addEdge(w, v, NO_COST);
+    }
+
+    /**
+     * {@inheritDoc Graph} The two edges are added one at a time, so a
+     * concurrent reader may see one without the other.
+     */
+    @Override
+    public void addBi(int v, int w, int c) {
+        if (vertexOutOfBounds(v) || vertexOutOfBounds(w) || c < 0) {
+            throw new IllegalArgumentException("Illegal argument!");
+        }
+
+        addEdge(v, w, c);
+        addEdge(w, v, c);
+    }
+
+    /**
+     * {@inheritDoc Graph}
+     */
+    @Override
+    public void remove(int from, int to) {
+        if (vertexOutOfBounds(from) || vertexOutOfBounds(to)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        removeEdge(from, to);
+    }
+
+    /**
+     * {@inheritDoc Graph}
+     */
+    @Override
+    public void removeBi(int v, int w) {
+        if (vertexOutOfBounds(v) || vertexOutOfBounds(w)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        removeEdge(v, w);
+        removeEdge(w, v);
+    }
+
+    /**
+     * Returns a string representation of this graph. The result is weakly
+     * consistent if the graph is being changed.
+     *
+     * @return a String representation of this graph
+     */
+    @Override
+    public String toString() {
+        return GraphExporter.toString(this);
+    }
+}
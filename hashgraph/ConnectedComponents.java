@@ -0,0 +1,243 @@
+package kth.csc.inda;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Parallel computation of the connected components of a graph. Every edge
+ * is treated as undirected, so for a directed graph the result is its
+ * weakly connected components.
+ *
+ * Both methods return an array componentId where componentId[v] is the
+ * component of vertex v. The components are numbered 0..k-1 in the order
+ * of their smallest vertex. The graph must not be changed during the
+ * computation.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+public final class ConnectedComponents {
+    /**
+     * Vertex ranges smaller than this are handled by a single task.
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private ConnectedComponents() {
+    }
+
+    /**
+     * Computes the components with a lock-free union-find structure. The
+     * edges out of different vertices are processed in parallel on the
+     * common ForkJoinPool. Time complexity: O((n + m) &alpha;(n)) work.
+     */
+    public static int[] unionFind(Graph g) {
+        return unionFind(g, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the components with a lock-free union-find structure, using
+     * the given pool.
+     */
+    public static int[] unionFind(Graph g, ForkJoinPool pool) {
+        int n = g.numVertices();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            parent.lazySet(v, v);
+        }
+
+        pool.invoke(new UnionTask(g, parent, 0, n));
+
+        int[] root = new int[n];
+        for (int v = 0; v < n; v++) {
+            root[v] = find(parent, v);
+        }
+        return compact(root);
+    }
+
+    /**
+     * Computes the components by label propagation: every vertex starts
+     * with its own number as label and repeatedly takes the smallest label
+     * among its neighbors until no label changes. Each round is done in
+     * parallel on the common ForkJoinPool. The number of rounds is at most
+     * the largest diameter of a component plus one, so this method suits
+     * graphs with small diameter.
+     */
+    public static int[] labelPropagation(Graph g) {
+        return labelPropagation(g, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the components by label propagation, using the given pool.
+     */
+    public static int[] labelPropagation(Graph g, ForkJoinPool pool) {
+        int n = g.numVertices();
+        AtomicIntegerArray label = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            label.lazySet(v, v);
+        }
+
+        AtomicBoolean changed = new AtomicBoolean(true);
+        while (changed.get()) {
+            changed.set(false);
+            pool.invoke(new PropagateTask(g, label, changed, 0, n));
+        }
+
+        int[] root = new int[n];
+        for (int v = 0; v < n; v++) {
+            root[v] = label.get(v);
+        }
+        return compact(root);
+    }
+
+    /**
+     * Returns the root of the set containing x, halving the path on the
+     * way.
+     */
+    private static int find(AtomicIntegerArray parent, int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int gp = parent.get(p);
+            if (p != gp) {
+                parent.compareAndSet(x, p, gp);
+            }
+            x = gp;
+        }
+    }
+
+    /**
+     * Merges the sets containing a and b. The root with the larger number
+     * is always linked below the other, so no cycle can form and every
+     * root is the smallest vertex of its set.
+     */
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            int ra = find(parent, a);
+            int rb = find(parent, b);
+            if (ra == rb) {
+                return;
+            }
+            if (ra < rb) {
+                int tmp = ra;
+                ra = rb;
+                rb = tmp;
+            }
+            if (parent.compareAndSet(ra, ra, rb)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lowers label[v] to x if it is larger. Returns true if it was lowered.
+     */
+    private static boolean lower(AtomicIntegerArray label, int v, int x) {
+        int old;
+        do {
+            old = label.get(v);
+            if (old <= x) {
+                return false;
+            }
+        } while (!label.compareAndSet(v, old, x));
+        return true;
+    }
+
+    /**
+     * Renumbers root, where root[v] is the smallest vertex in the component
+     * of v, to 0..k-1 in place.
+     */
+    private static int[] compact(int[] root) {
+        int k = 0;
+        for (int v = 0; v < root.length; v++) {
+            // root[v] <= v, so root[root[v]] is already renumbered.
+            root[v] = root[v] == v ? k++ : root[root[v]];
+        }
+        return root;
+    }
+
+    /**
+     * Visits the vertices lo..hi-1 and their edges, splitting the range
+     * among several tasks if it is large.
+     */
+    @SuppressWarnings("serial")
+    private static abstract class VertexTask extends RecursiveAction implements IntIntConsumer {
+        final Graph g;
+        final int lo;
+        final int hi;
+        int current;
+
+        VertexTask(Graph g, int lo, int hi) {
+            this.g = g;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        abstract VertexTask subtask(int lo, int hi);
+
+        @Override
+        protected void compute() {
+            if (hi - lo > PARALLEL_THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(subtask(lo, mid), subtask(mid, hi));
+                return;
+            }
+            for (current = lo; current < hi; current++) {
+                g.forEachNeighbor(current, this);
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class UnionTask extends VertexTask {
+        private final AtomicIntegerArray parent;
+
+        UnionTask(Graph g, AtomicIntegerArray parent, int lo, int hi) {
+            super(g, lo, hi);
+            this.parent = parent;
+        }
+
+        @Override
+        VertexTask subtask(int lo, int hi) {
+            return new UnionTask(g, parent, lo, hi);
+        }
+
+        @Override
+        public void accept(int w, int c) {
+            union(parent, current, w);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class PropagateTask extends VertexTask {
+        private final AtomicIntegerArray label;
+        private final AtomicBoolean changed;
+
+        PropagateTask(Graph g, AtomicIntegerArray label, AtomicBoolean changed, int lo, int hi) {
+            super(g, lo, hi);
+            this.label = label;
+            this.changed = changed;
+        }
+
+        @Override
+        VertexTask subtask(int lo, int hi) {
+            return new PropagateTask(g, label, changed, lo, hi);
+        }
+
+        @Override
+        public void accept(int w, int c) {
+            int a = label.get(current);
+            int b = label.get(w);
+            if (a == b) {
+                return;
+            }
+            boolean lowered = a < b ? lower(label, w, a) : lower(label, current, b);
+            if (lowered && !changed.get()) {
+                changed.set(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package kth.csc.inda;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable graph stored in compressed sparse row form. The neighbors of
+ * vertex v are targets[offsets[v]] .. targets[offsets[v+1] - 1], sorted in
+ * ascending order, and costs[i] is the cost of the edge to targets[i].
+ * Space complexity is &Theta;(n + m) where n is the number of vertices and m
+ * the number of edges.
+ *
+ * A CsrGraph is created with a {@link Builder}, by copying another graph
+ * with {@link #copyOf(Graph)} or by calling {@link HashGraph#freeze()}.
+ * Methods that modify the graph throw UnsupportedOperationException.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+public class CsrGraph implements Graph {
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] costs;
+
+    /**
+     * Creates a graph from arrays in compressed sparse row form. The arrays
+     * are not copied; every row of targets must be sorted in ascending
+     * order and free of duplicates.
+     */
+    CsrGraph(int[] offsets, int[] targets, int[] costs) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.costs = costs;
+    }
+
+    /**
+     * Returns an immutable copy of the graph g. Time complexity:
+     * O(n + m log m).
+     */
+    public static CsrGraph copyOf(Graph g) {
+        int n = g.numVertices();
+        Builder b = new Builder(n, g.numEdges());
+        for (int v = 0; v < n; v++) {
+            for (VertexIterator it = g.neighbors(v); it.hasNext();) {
+                int w = it.next();
+                b.addEdge(v, w, g.cost(v, w));
+            }
+        }
+        return b.build();
+    }
+
+    /**
+     * Collects edges and builds a CsrGraph from them. If the same edge is
+     * added more than once, the last cost added is kept.
+     */
+    public static class Builder {
+        private final int n;
+        private int[] from;
+        private int[] to;
+        private int[] cost;
+        private int size;
+
+        /**
+         * Creates a builder for a graph with n vertices.
+         *
+         * @throws IllegalArgumentException if n < 0
+         */
+        public Builder(int n) {
+            this(n, 16);
+        }
+
+        /**
+         * Creates a builder for a graph with n vertices and room for the
+         * given number of edges before it has to grow.
+         *
+         * @throws IllegalArgumentException if n < 0 or expectedEdges < 0
+         */
+        public Builder(int n, int expectedEdges) {
+            if (n < 0 || expectedEdges < 0)
+                throw new IllegalArgumentException("n = " + n + ", expectedEdges = " + expectedEdges);
+
+            this.n = n;
+            from = new int[expectedEdges];
+            to = new int[expectedEdges];
+            cost = new int[expectedEdges];
+        }
+
+        private boolean vertexOutOfBounds(int v) {
+            return (v < 0 || v >= n);
+        }
+
+        /**
+         * Adds a directed edge without cost.
+         *
+         * @throws IllegalArgumentException if from or to are out of range
+         */
+        public Builder add(int from, int to) {
+            if (vertexOutOfBounds(from) || vertexOutOfBounds(to)) {
+                throw new IllegalArgumentException("Vertex out of bounds!");
+            }
+
+            addEdge(from, to, NO_COST);
+            return this;
+        }
+
+        /**
+         * Adds a directed edge with cost c.
+         *
+         * @throws IllegalArgumentException if from or to are out of range
+         *             or if c < 0
+         */
+        public Builder add(int from, int to, int c) {
+            if (vertexOutOfBounds(from) || vertexOutOfBounds(to) || c < 0) {
+                throw new IllegalArgumentException("Illegal argument");
+            }
+
+            addEdge(from, to, c);
+            return this;
+        }
+
+        /**
+         * Adds edges in both directions between v and w, with cost c.
+         *
+         * @throws IllegalArgumentException if v or w are out of range or if
+         *             c < 0
+         */
+        public Builder addBi(int v, int w, int c) {
+            add(v, w, c);
+            return add(w, v, c);
+        }
+
+        /**
+         * Add an edge without checking parameters.
+         */
+        void addEdge(int v, int w, int c) {
+            if (size == from.length) {
+                int capacity = Math.max(16, 2 * size);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                cost = Arrays.copyOf(cost, capacity);
+            }
+            from[size] = v;
+            to[size] = w;
+            cost[size] = c;
+            size++;
+        }
+
+        /**
+         * Builds the graph. The builder may be used again afterwards.
+         * Time complexity: O(n + m log m).
+         */
+        public CsrGraph build() {
+            // Counting sort by source vertex, keeping insertion order within a row.
+            int[] start = new int[n + 1];
+            for (int i = 0; i < size; i++)
+                start[from[i] + 1]++;
+            for (int v = 0; v < n; v++)
+                start[v + 1] += start[v];
+
+            int[] next = Arrays.copyOf(start, n);
+            int[] rowTo = new int[size];
+            int[] rowCost = new int[size];
+            for (int i = 0; i < size; i++) {
+                int pos = next[from[i]]++;
+                rowTo[pos] = to[i];
+                rowCost[pos] = cost[i];
+            }
+
+            // Sort each row by target. The low word keeps the position in the
+            // row so that the last of several equal edges can be found.
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[size];
+            int[] costs = new int[size];
+            long[] keys = new long[size];
+            int m = 0;
+            for (int v = 0; v < n; v++) {
+                int lo = start[v];
+                int hi = start[v + 1];
+                for (int i = lo; i < hi; i++)
+                    keys[i] = ((long) rowTo[i] << 32) | (i - lo);
+                Arrays.sort(keys, lo, hi);
+                for (int i = lo; i < hi; i++) {
+                    int w = (int) (keys[i] >> 32);
+                    if (i + 1 < hi && (int) (keys[i + 1] >> 32) == w)
+                        continue;
+                    targets[m] = w;
+                    costs[m] = rowCost[lo + (int) keys[i]];
+                    m++;
+                }
+                offsets[v + 1] = m;
+            }
+
+            if (m < size) {
+                targets = Arrays.copyOf(targets, m);
+                costs = Arrays.copyOf(costs, m);
+            }
+            return new CsrGraph(offsets, targets, costs);
+        }
+    }
+
+    /**
+     * Check if a vertex is out of bounds
+     *
+     * @param v the vertex
+     * @return true if out of bounds, otherwise false
+     */
+    private boolean vertexOutOfBounds(int v) {
+        return (v < 0 || v >= numVertices());
+    }
+
+    /**
+     * Returns the index of the edge from v to w, or a negative value if
+     * there is no such edge. Time complexity: O(log degree(v)).
+     */
+    private int indexOf(int v, int w) {
+        return Arrays.binarySearch(targets, offsets[v], offsets[v + 1], w);
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(1).
+     */
+    @Override
+    public int numVertices() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(1).
+     */
+    @Override
+    public int numEdges() {
+        return targets.length;
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(1).
+     */
+    @Override
+    public int degree(int v) throws IllegalArgumentException {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * {@inheritDoc Graph} The neighbors are returned in ascending order.
+     */
+    @Override
+    public VertexIterator neighbors(int v) {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        return new neighborIterator(v);
+    }
+
+    /**
+     * {@inheritDoc Graph} The neighbors are visited in ascending order.
+     */
+    @Override
+    public void forEachNeighbor(int v, IntIntConsumer onEdge) {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            onEdge.accept(targets[i], costs[i]);
+        }
+    }
+
+    /**
+     * {@inheritDoc Graph} The neighbors are copied in ascending order.
+     */
+    @Override
+    public int neighbors(int v, int[] dst, int offset) {
+        int d = degree(v);
+        System.arraycopy(targets, offsets[v], dst, offset, d);
+        return d;
+    }
+
+    private class neighborIterator implements VertexIterator {
+        private int pos;
+        private final int end;
+
+        public neighborIterator(int v) {
+            pos = offsets[v];
+            end = offsets[v + 1];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < end;
+        }
+
+        @Override
+        public int next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("no such element");
+            }
+
+            return targets[pos++];
+        }
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(log degree(v)).
+     */
+    @Override
+    public boolean hasEdge(int v, int w) {
+        if (vertexOutOfBounds(v) || vertexOutOfBounds(w)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        return indexOf(v, w) >= 0;
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(log degree(v)).
+     */
+    @Override
+    public int cost(int v, int w) throws IllegalArgumentException {
+        if (vertexOutOfBounds(v) || vertexOutOfBounds(w)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        int i = indexOf(v, w);
+        return i < 0 ? NO_COST : costs[i];
+    }
+
+    /**
+     * Not supported, this graph is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(int from, int to) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * Not supported, this graph is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(int from, int to, int c) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * Not supported, this graph is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addBi(int v, int w) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * Not supported, this graph is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addBi(int v, int w, int c) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * Not supported, this graph is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void remove(int from, int to) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * Not supported, this graph is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void removeBi(int v, int w) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * Returns a string representation of this graph.
+     *
+     * @return a String representation of this graph
+     */
+    @Override
+    public String toString() {
+        return GraphExporter.toString(this);
+    }
+}
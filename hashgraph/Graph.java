@@ -51,6 +51,51 @@ public interface Graph {
 	 */
 	VertexIterator neighbors(int v) throws IllegalArgumentException;
 
+	/**
+	 * Calls onEdge.accept(w, c) for every edge from v to a vertex w, where c
+	 * is the cost of the edge or NO_COST. The edges must not be changed
+	 * during the call.
+	 * 
+	 * @param v
+	 *            vertex
+	 * @param onEdge
+	 *            action to perform for each edge
+	 * @throws IllegalArgumentException
+	 *             if v is out of range
+	 */
+	default void forEachNeighbor(int v, IntIntConsumer onEdge)
+			throws IllegalArgumentException {
+		for (VertexIterator it = neighbors(v); it.hasNext();) {
+			int w = it.next();
+			onEdge.accept(w, cost(v, w));
+		}
+	}
+
+	/**
+	 * Copies the vertices adjacent to v into dst, starting at index offset.
+	 * 
+	 * @param v
+	 *            vertex
+	 * @param dst
+	 *            destination array
+	 * @param offset
+	 *            index in dst of the first vertex
+	 * @return the number of vertices copied, which is degree(v)
+	 * @throws IllegalArgumentException
+	 *             if v is out of range
+	 * @throws IndexOutOfBoundsException
+	 *             if dst has no room for degree(v) vertices at offset
+	 */
+	default int neighbors(int v, int[] dst, int offset)
+			throws IllegalArgumentException {
+		int d = degree(v);
+		if (offset < 0 || offset > dst.length - d)
+			throw new IndexOutOfBoundsException("offset = " + offset);
+		for (VertexIterator it = neighbors(v); it.hasNext();)
+			dst[offset++] = it.next();
+		return d;
+	}
+
 	/**
 	 * Returns true if there is an edge from v to w.
 	 * 
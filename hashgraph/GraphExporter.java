@@ -0,0 +1,277 @@
+package kth.csc.inda;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the edges of a graph as text, one edge at a time, through a fixed
+ * size character buffer. Numbers are formatted directly into the buffer,
+ * so the memory used does not depend on the size of the graph and no
+ * temporary strings are created.
+ *
+ * An exporter may be used for several graphs; it is not thread-safe.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+public final class GraphExporter {
+    /**
+     * Output formats.
+     */
+    public enum Format {
+        /**
+         * The format of toString: {(0,1), (0,2,5)} where the third number
+         * is the edge cost, if any.
+         */
+        EDGE_LIST,
+
+        /**
+         * One line "from TAB to TAB cost" per edge. The cost is -1
+         * (NO_COST) for edges without cost.
+         */
+        TSV,
+
+        /**
+         * A Graphviz digraph with the edge costs as labels.
+         */
+        DOT
+    }
+
+    /**
+     * Use as maxEdges to write every edge.
+     */
+    public static final long ALL_EDGES = Long.MAX_VALUE;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer out;
+    private final char[] buf = new char[BUFFER_SIZE];
+    private int len;
+
+    // State of the current export, used by writeEdge.
+    private Format format;
+    private int from;
+    private long written;
+    private long maxEdges;
+    private final IntIntConsumer edgeWriter = this::writeEdge;
+
+    /**
+     * Creates an exporter that writes to out.
+     */
+    public GraphExporter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Creates an exporter that writes ASCII text to out.
+     */
+    public GraphExporter(OutputStream out) {
+        this(new OutputStreamWriter(out, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns g in EDGE_LIST format. Intended for toString methods.
+     */
+    static String toString(Graph g) {
+        StringWriter sw = new StringWriter();
+        try {
+            GraphExporter e = new GraphExporter(sw);
+            e.export(g, Format.EDGE_LIST, ALL_EDGES);
+            e.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sw.toString();
+    }
+
+    /**
+     * Writes every edge of g in the given format. The output is buffered;
+     * call flush when done.
+     *
+     * @return the number of edges written
+     * @throws IOException if the underlying writer fails
+     */
+    public long export(Graph g, Format format) throws IOException {
+        return export(g, format, ALL_EDGES);
+    }
+
+    /**
+     * Writes at most maxEdges edges of g in the given format. If edges are
+     * left out, the output says so with "..." (EDGE_LIST) or a comment line
+     * (TSV, DOT). The output is buffered; call flush when done.
+     *
+     * @return the number of edges written
+     * @throws IllegalArgumentException if maxEdges < 0
+     * @throws IOException if the underlying writer fails
+     */
+    public long export(Graph g, Format format, long maxEdges) throws IOException {
+        if (maxEdges < 0)
+            throw new IllegalArgumentException("maxEdges = " + maxEdges);
+
+        this.format = format;
+        this.maxEdges = maxEdges;
+        written = 0;
+
+        switch (format) {
+            case EDGE_LIST:
+                append('{');
+                break;
+            case DOT:
+                append("digraph G {\n");
+                break;
+            default:
+                break;
+        }
+
+        try {
+            for (from = 0; from < g.numVertices() && written < maxEdges; from++) {
+                g.forEachNeighbor(from, edgeWriter);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        boolean truncated = written < g.numEdges();
+        switch (format) {
+            case EDGE_LIST:
+                if (truncated) {
+                    append(written > 0 ? ", ...}" : "...}");
+                } else {
+                    append('}');
+                }
+                break;
+            case TSV:
+                if (truncated) {
+                    append("# ... ");
+                    append(g.numEdges() - written);
+                    append(" more edges\n");
+                }
+                break;
+            case DOT:
+                if (truncated) {
+                    append("  // ... ");
+                    append(g.numEdges() - written);
+                    append(" more edges\n");
+                }
+                append("}\n");
+                break;
+        }
+        return written;
+    }
+
+    /**
+     * Writes one edge from the current vertex. Called by forEachNeighbor.
+     */
+    private void writeEdge(int to, int cost) {
+        if (written >= maxEdges) {
+            return;
+        }
+
+        try {
+            switch (format) {
+                case EDGE_LIST:
+                    if (written > 0) {
+                        append(", ");
+                    }
+                    append('(');
+                    append(from);
+                    append(',');
+                    append(to);
+                    if (cost != Graph.NO_COST) {
+                        append(',');
+                        append(cost);
+                    }
+                    append(')');
+                    break;
+                case TSV:
+                    append(from);
+                    append('\t');
+                    append(to);
+                    append('\t');
+                    append(cost);
+                    append('\n');
+                    break;
+                case DOT:
+                    append("  ");
+                    append(from);
+                    append(" -> ");
+                    append(to);
+                    if (cost != Graph.NO_COST) {
+                        append(" [label=");
+                        append(cost);
+                        append(']');
+                    }
+                    append(";\n");
+                    break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written++;
+    }
+
+    /**
+     * Writes the buffered characters and flushes the underlying writer.
+     *
+     * @throws IOException if the underlying writer fails
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void drain() throws IOException {
+        out.write(buf, 0, len);
+        len = 0;
+    }
+
+    private void append(char c) throws IOException {
+        if (len == buf.length) {
+            drain();
+        }
+        buf[len++] = c;
+    }
+
+    private void append(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            append(s.charAt(i));
+        }
+    }
+
+    /**
+     * Formats x in decimal directly into the buffer.
+     */
+    private void append(long x) throws IOException {
+        if (len > buf.length - 20) {
+            drain();
+        }
+        if (x < 0) {
+            if (x == Long.MIN_VALUE) {
+                append(Long.toString(x));
+                return;
+            }
+            buf[len++] = '-';
+            x = -x;
+        }
+        int end = len + digits(x);
+        for (int i = end - 1; i >= len; i--) {
+            buf[i] = (char) ('0' + x % 10);
+            x /= 10;
+        }
+        len = end;
+    }
+
+    private static int digits(long x) {
+        int d = 1;
+        while (x >= 10) {
+            x /= 10;
+            d++;
+        }
+        return d;
+    }
+}
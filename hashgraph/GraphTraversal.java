@@ -0,0 +1,238 @@
+package kth.csc.inda;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Depth-first and breadth-first searches over a Graph. Each search calls a
+ * VertexAction once for every vertex reachable from the start vertex,
+ * including the start vertex itself.
+ *
+ * The searches are iterative, so they do not overflow the call stack on
+ * deep graphs, and they keep the visited set as a bitset and the queue or
+ * stack as a primitive int array.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+public final class GraphTraversal {
+    /**
+     * Frontiers smaller than this are expanded by a single task.
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    private GraphTraversal() {
+    }
+
+    private static void checkVertex(Graph g, int v) {
+        if (v < 0 || v >= g.numVertices()) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+    }
+
+    /**
+     * Visits the vertices reachable from start in depth-first order. The
+     * neighbors of a vertex are explored in the order they are returned by
+     * g.neighbors(v). Time complexity: O(n + m).
+     *
+     * @return the number of visited vertices
+     * @throws IllegalArgumentException if start is out of range
+     */
+    public static int dfs(Graph g, int start, VertexAction action) {
+        checkVertex(g, start);
+
+        long[] visited = new long[(g.numVertices() + 63) >>> 6];
+        int[] stack = new int[Math.max(16, g.degree(start) + 1)];
+        int top = 0;
+        int count = 0;
+        stack[top++] = start;
+
+        while (top > 0) {
+            int v = stack[--top];
+            if ((visited[v >>> 6] & (1L << v)) != 0) {
+                continue;
+            }
+            visited[v >>> 6] |= 1L << v;
+            action.act(g, v);
+            count++;
+
+            int d = g.degree(v);
+            if (top + d > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(2 * stack.length, top + d));
+            }
+            // Push in reverse so that the first neighbor is popped first.
+            g.neighbors(v, stack, top);
+            for (int i = top, j = top + d - 1; i < j; i++, j--) {
+                int tmp = stack[i];
+                stack[i] = stack[j];
+                stack[j] = tmp;
+            }
+            top += d;
+        }
+        return count;
+    }
+
+    /**
+     * Visits the vertices reachable from start in breadth-first order.
+     * Time complexity: O(n + m).
+     *
+     * @return the number of visited vertices
+     * @throws IllegalArgumentException if start is out of range
+     */
+    public static int bfs(Graph g, int start, VertexAction action) {
+        checkVertex(g, start);
+
+        final long[] visited = new long[(g.numVertices() + 63) >>> 6];
+        final int[] queue = new int[g.numVertices()];
+        final int[] tail = {0};
+        visited[start >>> 6] |= 1L << start;
+        queue[tail[0]++] = start;
+
+        IntIntConsumer enqueue = (w, c) -> {
+            if ((visited[w >>> 6] & (1L << w)) == 0) {
+                visited[w >>> 6] |= 1L << w;
+                queue[tail[0]++] = w;
+            }
+        };
+
+        int head = 0;
+        while (head < tail[0]) {
+            int v = queue[head++];
+            action.act(g, v);
+            g.forEachNeighbor(v, enqueue);
+        }
+        return head;
+    }
+
+    /**
+     * Visits the vertices reachable from start level by level, using the
+     * common ForkJoinPool.
+     *
+     * @return the number of visited vertices
+     * @throws IllegalArgumentException if start is out of range
+     * @see #parallelBfs(Graph, int, VertexAction, ForkJoinPool)
+     */
+    public static int parallelBfs(Graph g, int start, VertexAction action) {
+        return parallelBfs(g, start, action, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Visits the vertices reachable from start level by level. All vertices
+     * at distance d are visited before any vertex at distance d + 1, but
+     * the order within a level is unspecified. The frontier of each level is
+     * split among the threads of the pool, so the action must be safe to
+     * call from several threads at once and the graph must not be changed
+     * during the search. Time complexity: O(n + m) work.
+     *
+     * @return the number of visited vertices
+     * @throws IllegalArgumentException if start is out of range
+     */
+    public static int parallelBfs(Graph g, int start, VertexAction action, ForkJoinPool pool) {
+        checkVertex(g, start);
+
+        int n = g.numVertices();
+        AtomicLongArray visited = new AtomicLongArray((n + 63) >>> 6);
+        int[] frontier = new int[n];
+        int[] next = new int[n];
+        AtomicInteger nextSize = new AtomicInteger();
+        visited.set(start >>> 6, 1L << start);
+        frontier[0] = start;
+        int size = 1;
+        int count = 0;
+
+        while (size > 0) {
+            nextSize.set(0);
+            pool.invoke(new ExpandTask(g, action, visited, frontier, 0, size, next, nextSize));
+            count += size;
+            size = nextSize.get();
+            int[] tmp = frontier;
+            frontier = next;
+            next = tmp;
+        }
+        return count;
+    }
+
+    /**
+     * Sets the bit of v in visited. Returns true if this call set it.
+     */
+    private static boolean claim(AtomicLongArray visited, int v) {
+        int i = v >>> 6;
+        long bit = 1L << v;
+        long old;
+        do {
+            old = visited.get(i);
+            if ((old & bit) != 0) {
+                return false;
+            }
+        } while (!visited.compareAndSet(i, old, old | bit));
+        return true;
+    }
+
+    /**
+     * Visits frontier[lo..hi-1] and appends their unvisited neighbors to
+     * next. Each leaf collects its neighbors in a local buffer and copies
+     * them to next in a single block.
+     */
+    @SuppressWarnings("serial")
+    private static class ExpandTask extends RecursiveAction implements IntIntConsumer {
+        private final Graph g;
+        private final VertexAction action;
+        private final AtomicLongArray visited;
+        private final int[] frontier;
+        private final int lo;
+        private final int hi;
+        private final int[] next;
+        private final AtomicInteger nextSize;
+        private int[] buffer;
+        private int buffered;
+
+        ExpandTask(Graph g, VertexAction action, AtomicLongArray visited,
+                   int[] frontier, int lo, int hi, int[] next, AtomicInteger nextSize) {
+            this.g = g;
+            this.action = action;
+            this.visited = visited;
+            this.frontier = frontier;
+            this.lo = lo;
+            this.hi = hi;
+            this.next = next;
+            this.nextSize = nextSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > PARALLEL_THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ExpandTask(g, action, visited, frontier, lo, mid, next, nextSize),
+                          new ExpandTask(g, action, visited, frontier, mid, hi, next, nextSize));
+                return;
+            }
+
+            buffer = new int[64];
+            for (int i = lo; i < hi; i++) {
+                int v = frontier[i];
+                action.act(g, v);
+                g.forEachNeighbor(v, this);
+            }
+            flush();
+        }
+
+        @Override
+        public void accept(int w, int c) {
+            if (claim(visited, w)) {
+                if (buffered == buffer.length) {
+                    flush();
+                }
+                buffer[buffered++] = w;
+            }
+        }
+
+        private void flush() {
+            int pos = nextSize.getAndAdd(buffered);
+            System.arraycopy(buffer, 0, next, pos, buffered);
+            buffered = 0;
+        }
+    }
+}
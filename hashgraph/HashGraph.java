@@ -1,9 +1,9 @@
 package kth.csc.inda;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * A graph with a fixed number of vertices implemented using adjacency maps.
@@ -17,11 +17,18 @@ public class HashGraph implements Graph {
     /**
      * The map edges[v] contains the key-value pair (w, c) if there is an edge
      * from v to w; c is the cost assigned to this edge. The maps may be null
-     * and are allocated only when needed.
+     * and are allocated only when needed. Keys and values are stored as
+     * primitive ints, so adding, looking up and removing an edge does not
+     * allocate unless a map has to grow.
      */
-    private final Map<Integer, Integer>[] edges;
+    private final IntIntHashMap[] edges;
     private final static int INITIAL_MAP_SIZE = 4;
 
+    /**
+     * Edge lists with fewer edges than this are loaded by a single thread.
+     */
+    private final static int PARALLEL_LOAD_THRESHOLD = 1 << 14;
+
     /**
      * Number of edges in the graph.
      */
@@ -37,15 +44,7 @@ public class HashGraph implements Graph {
         if (n < 0)
             throw new IllegalArgumentException("n = " + n);
 
-        // The array will contain only Map<Integer, Integer> instances created
-        // in addEdge(). This is sufficient to ensure type safety.
-        @SuppressWarnings("unchecked")
-        Map<Integer, Integer>[] a = new HashMap[n];
-        edges = a;
-
-        for(int i = 0; i < a.length; i++) {
-            edges[i] = new HashMap<>();
-        }
+        edges = new IntIntHashMap[n];
     }
 
     /**
@@ -53,16 +52,208 @@ public class HashGraph implements Graph {
      */
     private void addEdge(int from, int to, int cost) {
         if (edges[from] == null)
-            edges[from] = new HashMap<Integer, Integer>(INITIAL_MAP_SIZE);
-        if (edges[from].put(to, cost) == null)
+            edges[from] = new IntIntHashMap(INITIAL_MAP_SIZE);
+        if (edges[from].put(to, cost))
             numEdges++;
     }
 
+    /**
+     * Inserts the edges (from[i], to[i]) with cost costs[i] for every i. If
+     * costs is null, or costs[i] is NO_COST, the edge has no cost. The
+     * result is the same as calling add for each edge in order, but every
+     * adjacency map is grown at most once and the edges are inserted in
+     * parallel on the common ForkJoinPool. Nothing is added if any edge is
+     * illegal. Time complexity: O(n + m) where m is the number of edges.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     * @throws IllegalArgumentException if any from[i] is out of range or
+     *             any costs[i] is negative and not NO_COST
+     */
+    public void addAll(int[] from, int[] to, int[] costs) {
+        if (to.length != from.length || (costs != null && costs.length != from.length)) {
+            throw new IllegalArgumentException("Array lengths differ");
+        }
+
+        load(new EdgeList(from, to, costs));
+    }
+
+    /**
+     * Inserts the edges packed in edges without cost. Each edge is stored
+     * as ((long) from << 32) | (to & 0xFFFFFFFFL). Otherwise this method
+     * works as {@link #addAll(int[], int[], int[])}.
+     *
+     * @throws IllegalArgumentException if any from vertex is out of range
+     */
+    public void addAll(long[] edges) {
+        load(new PackedEdgeList(edges));
+    }
+
+    /**
+     * A read-only list of edges for the bulk loader.
+     */
+    private static abstract class Edges {
+        abstract int size();
+        abstract int from(int i);
+        abstract int to(int i);
+        abstract int cost(int i);
+    }
+
+    private static final class EdgeList extends Edges {
+        private final int[] from;
+        private final int[] to;
+        private final int[] costs;
+
+        EdgeList(int[] from, int[] to, int[] costs) {
+            this.from = from;
+            this.to = to;
+            this.costs = costs;
+        }
+
+        @Override
+        int size() {
+            return from.length;
+        }
+
+        @Override
+        int from(int i) {
+            return from[i];
+        }
+
+        @Override
+        int to(int i) {
+            return to[i];
+        }
+
+        @Override
+        int cost(int i) {
+            return costs == null ? NO_COST : costs[i];
+        }
+    }
+
+    private static final class PackedEdgeList extends Edges {
+        private final long[] edges;
+
+        PackedEdgeList(long[] edges) {
+            this.edges = edges;
+        }
+
+        @Override
+        int size() {
+            return edges.length;
+        }
+
+        @Override
+        int from(int i) {
+            return (int) (edges[i] >> 32);
+        }
+
+        @Override
+        int to(int i) {
+            return (int) edges[i];
+        }
+
+        @Override
+        int cost(int i) {
+            return NO_COST;
+        }
+    }
+
+    /**
+     * Checks and inserts the edges. The edges are grouped by source vertex
+     * with a counting sort, each adjacency map is grown once to its final
+     * size, and disjoint ranges of source vertices are then filled in
+     * parallel.
+     */
+    private void load(Edges list) {
+        int m = list.size();
+        int n = edges.length;
+
+        int[] start = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            int v = list.from(i);
+            int c = list.cost(i);
+            if (vertexOutOfBounds(v) || (c < 0 && c != NO_COST)) {
+                throw new IllegalArgumentException("Illegal edge " + i);
+            }
+            start[v + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            start[v + 1] += start[v];
+        }
+
+        // order lists the edge indices by source, keeping input order.
+        int[] next = Arrays.copyOf(start, n);
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++) {
+            order[next[list.from(i)]++] = i;
+        }
+
+        LoadTask task = new LoadTask(list, start, order, 0, n);
+        numEdges += m < PARALLEL_LOAD_THRESHOLD ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    /**
+     * Inserts the edges out of the vertices lo..hi-1 and returns the number
+     * of new edges.
+     */
+    @SuppressWarnings("serial")
+    private class LoadTask extends RecursiveTask<Integer> {
+        private final Edges list;
+        private final int[] start;
+        private final int[] order;
+        private final int lo;
+        private final int hi;
+
+        LoadTask(Edges list, int[] start, int[] order, int lo, int hi) {
+            this.list = list;
+            this.start = start;
+            this.order = order;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (hi - lo > 1 && start[hi] - start[lo] > PARALLEL_LOAD_THRESHOLD) {
+                // Split where half of the edges are on either side.
+                int half = (start[lo] + start[hi]) >>> 1;
+                int mid = Arrays.binarySearch(start, lo + 1, hi, half);
+                if (mid < 0) {
+                    mid = Math.min(-mid - 1, hi - 1);
+                }
+                LoadTask left = new LoadTask(list, start, order, lo, mid);
+                left.fork();
+                int right = new LoadTask(list, start, order, mid, hi).compute();
+                return left.join() + right;
+            }
+
+            int added = 0;
+            for (int v = lo; v < hi; v++) {
+                int d = start[v + 1] - start[v];
+                if (d == 0) {
+                    continue;
+                }
+                if (edges[v] == null) {
+                    edges[v] = new IntIntHashMap(d);
+                } else {
+                    edges[v].ensureCapacity(edges[v].size() + d);
+                }
+                for (int i = start[v]; i < start[v + 1]; i++) {
+                    int e = order[i];
+                    if (edges[v].put(list.to(e), list.cost(e))) {
+                        added++;
+                    }
+                }
+            }
+            return added;
+        }
+    }
+
     /**
      * Remove an edge without checking parameters
      */
     private void removeEdge(int from, int to) {
-        if(edges[from].remove(to) != null) {
+        if(edges[from] != null && edges[from].remove(to)) {
             numEdges--;
         }
     }
@@ -102,7 +293,7 @@ public class HashGraph implements Graph {
             throw new IllegalArgumentException("Vertex out of bounds!");
         }
 
-        return edges[v].size();
+        return edges[v] == null ? 0 : edges[v].size();
     }
 
     /**
@@ -117,16 +308,58 @@ public class HashGraph implements Graph {
         return new neighborIterator(v);
     }
 
+    /**
+     * {@inheritDoc Graph} Time complexity: O(degree(v)); no memory is
+     * allocated.
+     */
+    @Override
+    public void forEachNeighbor(int v, IntIntConsumer onEdge) {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        IntIntHashMap adj = edges[v];
+        if (adj == null) {
+            return;
+        }
+        for(int s = adj.nextSlot(0); s >= 0; s = adj.nextSlot(s + 1)) {
+            onEdge.accept(adj.keyAt(s), adj.valueAt(s));
+        }
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(degree(v)); no memory is
+     * allocated.
+     */
+    @Override
+    public int neighbors(int v, int[] dst, int offset) {
+        int d = degree(v);
+        if (offset < 0 || offset > dst.length - d) {
+            throw new IndexOutOfBoundsException("offset = " + offset);
+        }
+
+        IntIntHashMap adj = edges[v];
+        if (adj == null) {
+            return 0;
+        }
+        for(int s = adj.nextSlot(0); s >= 0; s = adj.nextSlot(s + 1)) {
+            dst[offset++] = adj.keyAt(s);
+        }
+        return d;
+    }
+
     private class neighborIterator implements VertexIterator {
-        private Iterator<Map.Entry<Integer, Integer>> iteratorOfAdj;
+        private final IntIntHashMap adj;
+        private int slot;
 
         public neighborIterator(int v) {
-            iteratorOfAdj = edges[v].entrySet().iterator();
+            adj = edges[v];
+            slot = adj == null ? -1 : adj.nextSlot(0);
         }
 
         @Override
         public boolean hasNext() {
-            return iteratorOfAdj.hasNext();
+            return slot >= 0;
         }
 
         @Override
@@ -135,7 +368,9 @@ public class HashGraph implements Graph {
                 throw new NoSuchElementException("no such element");
             }
 
-            return iteratorOfAdj.next().getKey();
+            int w = adj.keyAt(slot);
+            slot = adj.nextSlot(slot + 1);
+            return w;
         }
     }
 
@@ -148,7 +383,7 @@ public class HashGraph implements Graph {
             throw new IllegalArgumentException("Vertex out of bounds!");
         }
 
-        return edges[v].containsKey(w);
+        return edges[v] != null && edges[v].containsKey(w);
     }
 
     /**
@@ -160,14 +395,11 @@ public class HashGraph implements Graph {
             throw new IllegalArgumentException("Vertex out of bounds!");
         }
 
-        Integer fetchedCost = edges[v].get(w);
-
-        if (fetchedCost == null) {
+        if (edges[v] == null) {
             return NO_COST;
         }
 
-        return fetchedCost;
-
+        return edges[v].get(w, NO_COST);
     }
 
     /**
@@ -246,34 +478,36 @@ public class HashGraph implements Graph {
     }
 
     /**
-     * Returns a string representation of this graph.
+     * Returns an immutable copy of this graph in compressed sparse row form.
+     * Later changes to this graph do not affect the copy. Time complexity:
+     * O(n + m log m).
      *
-     * @return a String representation of this graph
+     * @return an immutable copy of this graph
      */
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-
-        if(edges.length == 0) {
-            return "{}";
-        }
-
-        sb.append("{");
+    public CsrGraph freeze() {
+        CsrGraph.Builder b = new CsrGraph.Builder(edges.length, numEdges);
 
         for(int i = 0; i < edges.length; i++) {
-            for(Map.Entry e : edges[i].entrySet()) {
-                if(e.getValue().equals(NO_COST)) {
-                    sb.append("(" + i + "," + e.getKey() + "), ");
-                } else {
-                    sb.append("(" + i + "," + e.getKey() + "," + e.getValue() + "), ");
-                }
+            IntIntHashMap adj = edges[i];
+            if (adj == null) {
+                continue;
+            }
+            for(int s = adj.nextSlot(0); s >= 0; s = adj.nextSlot(s + 1)) {
+                b.addEdge(i, adj.keyAt(s), adj.valueAt(s));
             }
         }
 
-        sb.delete(sb.length()-2, sb.length());
-        sb.append("}");
+        return b.build();
+    }
 
-        return sb.toString();
+    /**
+     * Returns a string representation of this graph.
+     *
+     * @return a String representation of this graph
+     */
+    @Override
+    public String toString() {
+        return GraphExporter.toString(this);
     }
 
 
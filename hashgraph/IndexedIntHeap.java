@@ -0,0 +1,146 @@
+package kth.csc.inda;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A 4-ary min-heap of the ints 0..n-1 ordered by a long key. The heap keeps
+ * the position of every element, so the key of an element already in the
+ * heap can be decreased in O(log n) time. All arrays are allocated by the
+ * constructor; no operation allocates memory.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+class IndexedIntHeap {
+    private static final int ARITY = 4;
+
+    private final int[] heap;
+    private final int[] pos;   // pos[v] is the index of v in heap, or -1
+    private final long[] key;  // key[v] is valid while v is in the heap
+    private int size;
+
+    /**
+     * Creates an empty heap for the elements 0..n-1.
+     */
+    IndexedIntHeap(int n) {
+        heap = new int[n];
+        pos = new int[n];
+        key = new long[n];
+        Arrays.fill(pos, -1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int v) {
+        return pos[v] >= 0;
+    }
+
+    /**
+     * Removes all elements. Time complexity: O(size()).
+     */
+    void clear() {
+        for (int i = 0; i < size; i++)
+            pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    /**
+     * Inserts v with key k, or lowers the key of v to k if v is already in
+     * the heap with a larger key.
+     */
+    void insertOrDecrease(int v, long k) {
+        int i = pos[v];
+        if (i < 0) {
+            i = size++;
+        } else if (k >= key[v]) {
+            return;
+        }
+        key[v] = k;
+        siftUp(v, i);
+    }
+
+    /**
+     * Returns the element with the smallest key without removing it.
+     *
+     * @throws NoSuchElementException if the heap is empty
+     */
+    int peek() {
+        if (size == 0)
+            throw new NoSuchElementException("heap is empty");
+        return heap[0];
+    }
+
+    /**
+     * Returns the smallest key in the heap.
+     *
+     * @throws NoSuchElementException if the heap is empty
+     */
+    long peekKey() {
+        return key[peek()];
+    }
+
+    /**
+     * Removes and returns the element with the smallest key.
+     *
+     * @throws NoSuchElementException if the heap is empty
+     */
+    int poll() {
+        int top = peek();
+        pos[top] = -1;
+        int last = heap[--size];
+        if (size > 0)
+            siftDown(last, 0);
+        return top;
+    }
+
+    /**
+     * Moves v up from index i until its parent has a smaller key.
+     */
+    private void siftUp(int v, int i) {
+        long k = key[v];
+        while (i > 0) {
+            int parent = (i - 1) / ARITY;
+            int p = heap[parent];
+            if (key[p] <= k)
+                break;
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+
+    /**
+     * Moves v down from index i until all its children have larger keys.
+     */
+    private void siftDown(int v, int i) {
+        long k = key[v];
+        while (true) {
+            int first = ARITY * i + 1;
+            if (first >= size)
+                break;
+            int last = Math.min(first + ARITY, size);
+            int min = first;
+            for (int c = first + 1; c < last; c++) {
+                if (key[heap[c]] < key[heap[min]])
+                    min = c;
+            }
+            int m = heap[min];
+            if (key[m] >= k)
+                break;
+            heap[i] = m;
+            pos[m] = i;
+            i = min;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+}
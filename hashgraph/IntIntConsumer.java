@@ -0,0 +1,21 @@
+package kth.csc.inda;
+
+/**
+ * This interface contains a single accept method that takes two int
+ * arguments. It is used to visit the edges of a graph without boxing.
+ * 
+ * @author agent
+ * @version Oct 2026
+ */
+
+public interface IntIntConsumer {
+	/**
+	 * Performs this operation on the given arguments.
+	 * 
+	 * @param a
+	 *            first argument
+	 * @param b
+	 *            second argument
+	 */
+	void accept(int a, int b);
+}
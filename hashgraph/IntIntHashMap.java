@@ -0,0 +1,275 @@
+package kth.csc.inda;
+
+import java.util.Arrays;
+
+/**
+ * A map from int keys to int values implemented with open addressing and
+ * linear probing over two parallel primitive arrays. No boxing takes place
+ * and no memory is allocated by get, put or remove unless the table has to
+ * grow.
+ *
+ * The key 0 marks a free slot in the table, so an entry with key 0 is kept
+ * in the extra slot at index capacity(). Slots can be visited with
+ * nextSlot, keyAt and valueAt:
+ *
+ * <pre>
+ * for (int s = map.nextSlot(0); s &gt;= 0; s = map.nextSlot(s + 1))
+ *     use(map.keyAt(s), map.valueAt(s));
+ * </pre>
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+class IntIntHashMap {
+    private static final int MIN_CAPACITY = 4;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * keys[i] == 0 means that slot i is free, except for the last slot
+     * which holds the key 0 if hasZeroKey is set.
+     */
+    private int[] keys;
+    private int[] values;
+    private boolean hasZeroKey;
+    private int mask;
+    private int size;
+    private int maxFill;
+
+    /**
+     * Creates a map that can hold the given number of entries without
+     * growing.
+     *
+     * @throws IllegalArgumentException if expected < 0
+     */
+    IntIntHashMap(int expected) {
+        if (expected < 0)
+            throw new IllegalArgumentException("expected = " + expected);
+
+        allocate(tableSize(expected));
+    }
+
+    /**
+     * Returns the smallest power of two table size that keeps the given
+     * number of entries below the load factor.
+     */
+    private static int tableSize(int expected) {
+        long needed = (long) Math.ceil(expected / LOAD_FACTOR) + 1;
+        int n = MIN_CAPACITY;
+        while (n < needed) {
+            if (n >= 1 << 30)
+                throw new IllegalStateException("map too large: " + expected);
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity + 1];
+        values = new int[capacity + 1];
+        mask = capacity - 1;
+        maxFill = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Spreads the bits of the key so that keys that differ only in their
+     * high bits end up in different slots.
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot holding the key, or -1 if the key is not present.
+     */
+    private int find(int key) {
+        if (key == 0)
+            return hasZeroKey ? mask + 1 : -1;
+
+        int pos = mix(key) & mask;
+        int k;
+        while ((k = keys[pos]) != 0) {
+            if (k == key)
+                return pos;
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Grows the table, if needed, so that it can hold the given number of
+     * entries without growing again.
+     */
+    void ensureCapacity(int expected) {
+        int capacity = tableSize(expected);
+        if (capacity > mask + 1)
+            rehash(capacity);
+    }
+
+    /**
+     * Returns the number of entries in this map.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this map contains the key.
+     */
+    boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Returns the value for the key, or defaultValue if the key is not
+     * present.
+     */
+    int get(int key, int defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Associates the value with the key.
+     *
+     * @return true if the key was not already present
+     */
+    boolean put(int key, int value) {
+        if (key == 0) {
+            values[mask + 1] = value;
+            if (hasZeroKey)
+                return false;
+            hasZeroKey = true;
+            size++;
+            return true;
+        }
+
+        int pos = mix(key) & mask;
+        int k;
+        while ((k = keys[pos]) != 0) {
+            if (k == key) {
+                values[pos] = value;
+                return false;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size > maxFill)
+            rehash(2 * (mask + 1));
+        return true;
+    }
+
+    /**
+     * Removes the key from this map.
+     *
+     * @return true if the key was present
+     */
+    boolean remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey)
+                return false;
+            hasZeroKey = false;
+            size--;
+            return true;
+        }
+
+        int pos = find(key);
+        if (pos < 0)
+            return false;
+        shiftKeys(pos);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all entries. The table keeps its current capacity.
+     */
+    void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * Backward shift deletion: closes the gap at pos by moving later
+     * entries of the same probe sequence into it, so that no tombstones
+     * are needed.
+     */
+    private void shiftKeys(int pos) {
+        int last;
+        int k;
+        while (true) {
+            last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if ((k = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                int home = mix(k) & mask;
+                // Move k into the gap unless its home lies cyclically in (last, pos].
+                if (last <= pos ? last >= home || home > pos : last >= home && home > pos)
+                    break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        int oldCapacity = mask + 1;
+
+        allocate(capacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            int k = oldKeys[i];
+            if (k != 0) {
+                int pos = mix(k) & mask;
+                while (keys[pos] != 0)
+                    pos = (pos + 1) & mask;
+                keys[pos] = k;
+                values[pos] = oldValues[i];
+            }
+        }
+        values[mask + 1] = oldValues[oldCapacity];
+    }
+
+    /**
+     * Returns the number of regular slots. Valid slot indices are
+     * 0..capacity(), where capacity() is the slot of the key 0.
+     */
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the first occupied slot with index >= from, or -1 if there
+     * is none.
+     */
+    int nextSlot(int from) {
+        for (int i = from; i <= mask; i++) {
+            if (keys[i] != 0)
+                return i;
+        }
+        if (from <= mask + 1 && hasZeroKey)
+            return mask + 1;
+        return -1;
+    }
+
+    /**
+     * Returns the key stored in an occupied slot.
+     */
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the value stored in an occupied slot.
+     */
+    int valueAt(int slot) {
+        return values[slot];
+    }
+}
@@ -0,0 +1,437 @@
+package kth.csc.inda;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only graph served directly from a memory-mapped file. The file is
+ * written by {@link #write(Graph, Path)} and opened by {@link #open(Path)};
+ * opening a file maps it without reading or copying the edges, so the
+ * pages are loaded on demand and are shared with every other process that
+ * maps the same file.
+ *
+ * The file holds, in little-endian order:
+ *
+ * <pre>
+ * int     MAGIC
+ * int     VERSION
+ * int     n, the number of vertices
+ * int     m, the number of edges
+ * int[n+1] offsets
+ * int[m]  targets
+ * int[m]  costs
+ * </pre>
+ *
+ * as in {@link CsrGraph}: the edges out of v are at positions offsets[v]
+ * to offsets[v+1] - 1, sorted by target. Methods that modify the graph
+ * throw UnsupportedOperationException.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+public class MappedGraph implements Graph {
+    private static final int MAGIC = 0x4B475246;  // "KGRF"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final int n;
+    private final int m;
+    private final MappedInts offsets;
+    private final MappedInts targets;
+    private final MappedInts costs;
+
+    private MappedGraph(int n, int m, MappedInts offsets, MappedInts targets, MappedInts costs) {
+        this.n = n;
+        this.m = m;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.costs = costs;
+    }
+
+    /**
+     * An int array stored in one or more mapped buffers. A single buffer
+     * cannot exceed 2 GB, so long sections are split in chunks.
+     */
+    private static final class MappedInts {
+        private static final int CHUNK_SHIFT = 28;
+        private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+        private final IntBuffer[] chunks;
+
+        MappedInts(FileChannel ch, long position, long length) throws IOException {
+            int count = (int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT);
+            chunks = new IntBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long first = (long) i << CHUNK_SHIFT;
+                long size = Math.min(length - first, 1L << CHUNK_SHIFT);
+                chunks[i] = ch.map(FileChannel.MapMode.READ_ONLY, position + 4 * first, 4 * size)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            }
+        }
+
+        int get(int i) {
+            return chunks[i >>> CHUNK_SHIFT].get(i & CHUNK_MASK);
+        }
+    }
+
+    /**
+     * Maps the graph file and returns it as a read-only graph. Time
+     * complexity: O(1) in the size of the graph.
+     *
+     * @throws IOException if the file cannot be read or is not a graph file
+     */
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (ch.read(header, header.position()) < 0) {
+                    throw new IOException("not a graph file: " + file);
+                }
+            }
+            header.flip();
+            int magic = header.getInt();
+            int version = header.getInt();
+            int n = header.getInt();
+            int m = header.getInt();
+            long expected = HEADER_BYTES + 4L * (n + 1) + 8L * m;
+            if (magic != MAGIC || version != VERSION || n < 0 || m < 0 || ch.size() != expected) {
+                throw new IOException("not a graph file: " + file);
+            }
+
+            long pos = HEADER_BYTES;
+            MappedInts offsets = new MappedInts(ch, pos, n + 1L);
+            pos += 4L * (n + 1);
+            MappedInts targets = new MappedInts(ch, pos, m);
+            pos += 4L * m;
+            MappedInts costs = new MappedInts(ch, pos, m);
+            return new MappedGraph(n, m, offsets, targets, costs);
+        }
+    }
+
+    /**
+     * Writes the graph g to a file that can be opened with open. The graph
+     * must not be changed while it is written. Time complexity:
+     * O(n + m log m).
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Graph g, Path file) throws IOException {
+        int n = g.numVertices();
+        long m = 0;
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            int d = g.degree(v);
+            m += d;
+            maxDegree = Math.max(maxDegree, d);
+        }
+        if (m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many edges: " + m);
+        }
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            SectionWriter out = new SectionWriter(ch, 0);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(n);
+            out.putInt((int) m);
+            int offset = 0;
+            out.putInt(offset);
+            for (int v = 0; v < n; v++) {
+                offset += g.degree(v);
+                out.putInt(offset);
+            }
+            out.flush();
+
+            // Targets and costs are written in one pass over the rows.
+            long targetsAt = HEADER_BYTES + 4L * (n + 1);
+            SectionWriter targets = new SectionWriter(ch, targetsAt);
+            SectionWriter costs = new SectionWriter(ch, targetsAt + 4 * m);
+            RowBuffer row = new RowBuffer(maxDegree);
+            for (int v = 0; v < n; v++) {
+                row.size = 0;
+                g.forEachNeighbor(v, row);
+                if (row.size != g.degree(v)) {
+                    throw new IllegalStateException("graph changed while writing");
+                }
+                Arrays.sort(row.edges, 0, row.size);
+                for (int i = 0; i < row.size; i++) {
+                    targets.putInt((int) (row.edges[i] >> 32));
+                    costs.putInt((int) row.edges[i]);
+                }
+            }
+            targets.flush();
+            costs.flush();
+        }
+    }
+
+    /**
+     * Collects the edges of one row, packed with the target in the high
+     * word so that sorting orders them by target.
+     */
+    private static final class RowBuffer implements IntIntConsumer {
+        final long[] edges;
+        int size;
+
+        RowBuffer(int capacity) {
+            edges = new long[capacity];
+        }
+
+        @Override
+        public void accept(int w, int c) {
+            if (size == edges.length) {
+                throw new IllegalStateException("graph changed while writing");
+            }
+            edges[size++] = ((long) w << 32) | (c & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Writes ints in little-endian order to a channel, starting at a given
+     * position, through a reusable buffer.
+     */
+    private static final class SectionWriter {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        SectionWriter(FileChannel ch, long position) {
+            this.ch = ch;
+            this.position = position;
+        }
+
+        void putInt(int x) throws IOException {
+            if (!buf.hasRemaining()) {
+                flush();
+            }
+            buf.putInt(x);
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                position += ch.write(buf, position);
+            }
+            buf.clear();
+        }
+    }
+
+    /**
+     * Check if a vertex is out of bounds
+     *
+     * @param v the vertex
+     * @return true if out of bounds, otherwise false
+     */
+    private boolean vertexOutOfBounds(int v) {
+        return (v < 0 || v >= n);
+    }
+
+    /**
+     * Returns the index of the edge from v to w, or -1 if there is no such
+     * edge. Time complexity: O(log degree(v)).
+     */
+    private int indexOf(int v, int w) {
+        int lo = offsets.get(v);
+        int hi = offsets.get(v + 1) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int t = targets.get(mid);
+            if (t < w) {
+                lo = mid + 1;
+            } else if (t > w) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(1).
+     */
+    @Override
+    public int numVertices() {
+        return n;
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(1).
+     */
+    @Override
+    public int numEdges() {
+        return m;
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(1).
+     */
+    @Override
+    public int degree(int v) throws IllegalArgumentException {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+
+    /**
+     * {@inheritDoc Graph} The neighbors are returned in ascending order.
+     */
+    @Override
+    public VertexIterator neighbors(int v) {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        return new neighborIterator(v);
+    }
+
+    /**
+     * {@inheritDoc Graph} The neighbors are visited in ascending order.
+     */
+    @Override
+    public void forEachNeighbor(int v, IntIntConsumer onEdge) {
+        if (vertexOutOfBounds(v)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        int end = offsets.get(v + 1);
+        for (int i = offsets.get(v); i < end; i++) {
+            onEdge.accept(targets.get(i), costs.get(i));
+        }
+    }
+
+    /**
+     * {@inheritDoc Graph} The neighbors are copied in ascending order.
+     */
+    @Override
+    public int neighbors(int v, int[] dst, int offset) {
+        int d = degree(v);
+        if (offset < 0 || offset > dst.length - d) {
+            throw new IndexOutOfBoundsException("offset = " + offset);
+        }
+
+        int first = offsets.get(v);
+        for (int i = 0; i < d; i++) {
+            dst[offset + i] = targets.get(first + i);
+        }
+        return d;
+    }
+
+    private class neighborIterator implements VertexIterator {
+        private int pos;
+        private final int end;
+
+        public neighborIterator(int v) {
+            pos = offsets.get(v);
+            end = offsets.get(v + 1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < end;
+        }
+
+        @Override
+        public int next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("no such element");
+            }
+
+            return targets.get(pos++);
+        }
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(log degree(v)).
+     */
+    @Override
+    public boolean hasEdge(int v, int w) {
+        if (vertexOutOfBounds(v) || vertexOutOfBounds(w)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        return indexOf(v, w) >= 0;
+    }
+
+    /**
+     * {@inheritDoc Graph} Time complexity: O(log degree(v)).
+     */
+    @Override
+    public int cost(int v, int w) throws IllegalArgumentException {
+        if (vertexOutOfBounds(v) || vertexOutOfBounds(w)) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+
+        int i = indexOf(v, w);
+        return i < 0 ? NO_COST : costs.get(i);
+    }
+
+    /**
+     * Not supported, this graph is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(int from, int to) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Not supported, this graph is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(int from, int to, int c) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Not supported, this graph is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addBi(int v, int w) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Not supported, this graph is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addBi(int v, int w, int c) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Not supported, this graph is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void remove(int from, int to) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Not supported, this graph is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void removeBi(int v, int w) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+}
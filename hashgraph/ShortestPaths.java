@@ -0,0 +1,289 @@
+package kth.csc.inda;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths in a graph with non-negative edge costs. An edge without a
+ * cost (NO_COST) is treated as an edge with cost 1.
+ *
+ * A ShortestPaths object is bound to one graph and keeps its distance,
+ * parent and heap arrays between queries. Only the entries touched by the
+ * previous query are reset, so a query allocates no memory and costs time
+ * proportional to the part of the graph it explores. The object is not
+ * thread-safe; use one per thread.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+public class ShortestPaths {
+    /**
+     * The distance to a vertex that cannot be reached.
+     */
+    public static final long NO_PATH = -1;
+
+    /**
+     * An estimate of the distance between two vertices, used to guide an
+     * A* search.
+     */
+    public interface Heuristic {
+        /**
+         * Returns a lower bound of the distance from v to target. The bound
+         * must be consistent: estimate(v, t) <= cost(v, w) + estimate(w, t)
+         * for every edge (v, w).
+         *
+         * @param v
+         *            vertex
+         * @param target
+         *            vertex
+         * @return a lower bound of the distance from v to target
+         */
+        long estimate(int v, int target);
+    }
+
+    private static final long INF = Long.MAX_VALUE;
+
+    private final Graph g;
+    private final Search forward;
+    private Search backward;      // allocated by the first bidirectional query
+    private int source = -1;      // source of the last single-source query
+
+    /**
+     * Creates a ShortestPaths object for the graph g. Time complexity: O(n).
+     */
+    public ShortestPaths(Graph g) {
+        this.g = g;
+        forward = new Search(g);
+    }
+
+    private static long weight(int c) {
+        return c == Graph.NO_COST ? 1 : c;
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= g.numVertices()) {
+            throw new IllegalArgumentException("Vertex out of bounds!");
+        }
+    }
+
+    /**
+     * The state of one Dijkstra search: tentative distances, parents and
+     * the heap of unsettled vertices.
+     */
+    private static class Search implements IntIntConsumer {
+        final Graph g;
+        final long[] dist;
+        final int[] parent;
+        final IndexedIntHeap heap;
+        final int[] touched;      // vertices with dist != INF
+        int numTouched;
+
+        Heuristic heuristic;      // null for plain Dijkstra
+        int target;
+        Search other;             // opposite direction of a bidirectional search
+        long best;                // shortest s-t distance found so far
+
+        private int current;      // vertex whose edges are being relaxed
+
+        Search(Graph g) {
+            int n = g.numVertices();
+            this.g = g;
+            dist = new long[n];
+            parent = new int[n];
+            heap = new IndexedIntHeap(n);
+            touched = new int[n];
+            Arrays.fill(dist, INF);
+        }
+
+        /**
+         * Clears the previous search and starts a new one from s.
+         */
+        void reset(int s) {
+            for (int i = 0; i < numTouched; i++)
+                dist[touched[i]] = INF;
+            numTouched = 0;
+            heap.clear();
+            best = INF;
+            reach(s, 0, -1);
+        }
+
+        private void reach(int w, long d, int p) {
+            if (dist[w] == INF)
+                touched[numTouched++] = w;
+            dist[w] = d;
+            parent[w] = p;
+            heap.insertOrDecrease(w, heuristic == null ? d : d + heuristic.estimate(w, target));
+        }
+
+        /**
+         * Settles the vertex with the smallest key and relaxes its edges.
+         */
+        int step() {
+            current = heap.poll();
+            g.forEachNeighbor(current, this);
+            return current;
+        }
+
+        @Override
+        public void accept(int w, int c) {
+            long d = dist[current] + weight(c);
+            if (d < dist[w]) {
+                reach(w, d, current);
+                if (other != null && other.dist[w] != INF)
+                    best = Math.min(best, d + other.dist[w]);
+            }
+        }
+
+        /**
+         * Runs the search until target is settled or, if target is -1,
+         * until every reachable vertex is settled.
+         */
+        void run() {
+            while (!heap.isEmpty()) {
+                if (step() == target)
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Computes the distances from source to every vertex. Afterwards
+     * {@link #distance(int)}, {@link #parent(int)} and {@link #path(int)}
+     * answer queries about paths from source. Time complexity:
+     * O((n + m) log n).
+     *
+     * @throws IllegalArgumentException if source is out of range
+     */
+    public void computeFrom(int source) {
+        checkVertex(source);
+        search(source, -1, null);
+    }
+
+    /**
+     * Returns the length of a shortest path from source to target, or
+     * NO_PATH if there is none. The search stops as soon as target is
+     * reached. Afterwards {@link #path(int)} returns the path.
+     *
+     * @throws IllegalArgumentException if source or target are out of range
+     */
+    public long distance(int source, int target) {
+        checkVertex(source);
+        checkVertex(target);
+        search(source, target, null);
+        return distance(target);
+    }
+
+    /**
+     * Returns the length of a shortest path from source to target, or
+     * NO_PATH if there is none, using an A* search guided by h. Afterwards
+     * {@link #path(int)} returns the path.
+     *
+     * @throws IllegalArgumentException if source or target are out of range
+     */
+    public long aStar(int source, int target, Heuristic h) {
+        checkVertex(source);
+        checkVertex(target);
+        search(source, target, h);
+        return distance(target);
+    }
+
+    private void search(int s, int t, Heuristic h) {
+        source = s;
+        forward.heuristic = h;
+        forward.target = t;
+        forward.other = null;
+        forward.reset(s);
+        forward.run();
+    }
+
+    /**
+     * Returns the length of a shortest path from source to target, or
+     * NO_PATH if there is none, searching from both ends at once. The first
+     * call builds a reversed copy of the graph in O(n + m log m) time;
+     * changes made to the graph after that are not seen by this method.
+     * The search does not record the path.
+     *
+     * @throws IllegalArgumentException if source or target are out of range
+     */
+    public long bidirectionalDistance(int source, int target) {
+        checkVertex(source);
+        checkVertex(target);
+        if (backward == null)
+            backward = new Search(reverse(g));
+
+        this.source = -1;
+        forward.heuristic = null;
+        forward.target = -1;
+        forward.other = backward;
+        backward.target = -1;
+        backward.other = forward;
+        forward.reset(source);
+        backward.reset(target);
+        if (source == target)
+            return 0;
+
+        while (true) {
+            long kf = forward.heap.isEmpty() ? INF : forward.heap.peekKey();
+            long kb = backward.heap.isEmpty() ? INF : backward.heap.peekKey();
+            long lower = (kf == INF || kb == INF) ? Math.min(kf, kb) : kf + kb;
+            long best = Math.min(forward.best, backward.best);
+            if (lower >= best)
+                return best == INF ? NO_PATH : best;
+            if (kf <= kb)
+                forward.step();
+            else
+                backward.step();
+        }
+    }
+
+    private static Graph reverse(Graph g) {
+        final CsrGraph.Builder b = new CsrGraph.Builder(g.numVertices(), g.numEdges());
+        for (int v = 0; v < g.numVertices(); v++) {
+            final int from = v;
+            g.forEachNeighbor(v, (w, c) -> b.addEdge(w, from, c));
+        }
+        return b.build();
+    }
+
+    /**
+     * Returns the distance from the source of the last query to v, or
+     * NO_PATH if v was not reached. If the query stopped at its target, the
+     * distance is final only for vertices that were settled before it.
+     *
+     * @throws IllegalArgumentException if v is out of range
+     */
+    public long distance(int v) {
+        checkVertex(v);
+        if (source < 0 || forward.dist[v] == INF)
+            return NO_PATH;
+        return forward.dist[v];
+    }
+
+    /**
+     * Returns the vertex before v on a shortest path from the source of the
+     * last query, or -1 if v is the source or was not reached.
+     *
+     * @throws IllegalArgumentException if v is out of range
+     */
+    public int parent(int v) {
+        return distance(v) == NO_PATH ? -1 : forward.parent[v];
+    }
+
+    /**
+     * Returns the vertices on a shortest path from the source of the last
+     * query to v, or null if v was not reached.
+     *
+     * @throws IllegalArgumentException if v is out of range
+     */
+    public int[] path(int v) {
+        if (distance(v) == NO_PATH)
+            return null;
+
+        int len = 1;
+        for (int u = v; forward.parent[u] >= 0; u = forward.parent[u])
+            len++;
+        int[] p = new int[len];
+        for (int u = v; u >= 0; u = forward.parent[u])
+            p[--len] = u;
+        return p;
+    }
+}
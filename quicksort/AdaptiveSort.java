@@ -0,0 +1,288 @@
+/**
+ * Adaptive merge sort for arrays that are already partly sorted.
+ * The array is split into its natural runs: maximal ascending runs and
+ * strictly descending runs, which are reversed. Runs shorter than
+ * QuickSort.INSERTION_SORT_THRESHOLD are extended by insertion sort. The
+ * runs are merged in the order given by Munro and Wild's powersort, and
+ * a merge switches to galloping (exponential search and block copies)
+ * while one run keeps winning. A sorted or reversed array is handled in
+ * O(n) time, and an array of r runs in O(n log r).
+ *
+ * A merge needs a buffer as large as the shorter run, at most n/2 ints.
+ * No state is kept between calls, so an AdaptiveSort may be shared by
+ * several threads.
+ * @author agent
+ * @version Oct 2026
+ */
+public class AdaptiveSort implements IntSorter {
+    /**
+     * Runs shorter than this are extended by insertion sort.
+     */
+    private static final int MIN_RUN = QuickSort.INSERTION_SORT_THRESHOLD;
+
+    /**
+     * A merge starts galloping after one run has supplied this many
+     * elements in a row.
+     */
+    private static final int MIN_GALLOP = 7;
+
+    /**
+     * The run stack holds runs of strictly increasing power, and powers
+     * are less than 32, so it never holds more than 32 runs.
+     */
+    private static final int MAX_STACK = 32;
+
+    @Override
+    public void sort(int[] v) {
+        int n = v.length;
+        if (n < MIN_RUN) {
+            QuickSort.insertionSort(v, 0, n - 1);
+            return;
+        }
+        new Merger(v).sort();
+    }
+
+    /**
+     * Returns the end of the run that starts at lo, after reversing it if
+     * it is descending and extending it to MIN_RUN elements if it is
+     * short.
+     */
+    private static int nextRun(int[] a, int lo, int n) {
+        int end = lo + 1;
+        if (end < n) {
+            if (a[end] < a[lo]) {
+                while (end + 1 < n && a[end + 1] < a[end])
+                    end++;
+                reverse(a, lo, end);
+            } else {
+                while (end + 1 < n && a[end + 1] >= a[end])
+                    end++;
+            }
+            end++;
+        }
+
+        if (end - lo < MIN_RUN && end < n) {
+            end = Math.min(lo + MIN_RUN, n);
+            QuickSort.insertionSort(a, lo, end - 1);
+        }
+        return end;
+    }
+
+    /**
+     * Returns the powersort power of the boundary between the runs
+     * [start1, start2) and [start2, end2) of an array of length n: the
+     * depth of the boundary in the perfectly balanced merge tree of the
+     * array. Twice the midpoints of the runs are scaled to 31-bit fixed
+     * point fractions of n, and the power is the number of leading bits
+     * they share.
+     */
+    private static int power(int start1, int start2, int end2, int n) {
+        long l = (long) start1 + start2;
+        long r = (long) start2 + end2;
+        int a = (int) ((l << 30) / n);
+        int b = (int) ((r << 30) / n);
+        return Integer.numberOfLeadingZeros(a ^ b);
+    }
+
+    private static void reverse(int[] a, int first, int last) {
+        while (first < last) {
+            int tmp = a[first];
+            a[first++] = a[last];
+            a[last--] = tmp;
+        }
+    }
+
+    /**
+     * Returns the first index x in [lo, hi) such that a[x] > key if
+     * strict, or a[x] >= key if not. a[lo..hi) must be sorted. The
+     * search starts at lo and doubles its step until it passes the
+     * answer, so it is fast when the answer is close to lo.
+     */
+    private static int gallopForward(int[] a, int lo, int hi, int key, boolean strict) {
+        int step = 1;
+        int bound = lo;
+        while (bound < hi && before(a[bound], key, strict)) {
+            lo = bound + 1;
+            bound = step < hi - bound ? bound + step : hi;
+            step <<= 1;
+        }
+        return binarySearch(a, lo, bound, key, strict);
+    }
+
+    /**
+     * Same as gallopForward, but the search starts at hi - 1, so it is
+     * fast when the answer is close to hi.
+     */
+    private static int gallopBackward(int[] a, int lo, int hi, int key, boolean strict) {
+        int step = 1;
+        int bound = hi - 1;
+        while (bound >= lo && !before(a[bound], key, strict)) {
+            hi = bound;
+            bound = step <= bound - lo ? bound - step : lo - 1;
+            step <<= 1;
+        }
+        return binarySearch(a, bound + 1, hi, key, strict);
+    }
+
+    private static int binarySearch(int[] a, int lo, int hi, int key, boolean strict) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (before(a[mid], key, strict)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static boolean before(int x, int key, boolean strict) {
+        return strict ? x <= key : x < key;
+    }
+
+    /**
+     * The state of one call to sort: the array, the merge buffer and the
+     * run stack.
+     */
+    private static class Merger {
+        private final int[] a;
+        private int[] buf = new int[0];
+        private final int[] runStart = new int[MAX_STACK];
+        private final int[] runPower = new int[MAX_STACK];
+        private int top;
+
+        Merger(int[] a) {
+            this.a = a;
+        }
+
+        void sort() {
+            int n = a.length;
+            int start = 0;
+            int end = nextRun(a, 0, n);
+            while (end < n) {
+                int next = nextRun(a, end, n);
+                int p = power(start, end, next, n);
+                while (top > 0 && runPower[top - 1] > p) {
+                    top--;
+                    merge(runStart[top], start, end);
+                    start = runStart[top];
+                }
+                runStart[top] = start;
+                runPower[top] = p;
+                top++;
+                start = end;
+                end = next;
+            }
+            while (top > 0) {
+                top--;
+                merge(runStart[top], start, n);
+                start = runStart[top];
+            }
+        }
+
+        /**
+         * Merges the sorted runs a[lo..mid) and a[mid..hi).
+         */
+        private void merge(int lo, int mid, int hi) {
+            if (a[mid - 1] <= a[mid])
+                return;
+
+            // Elements of the left run not greater than a[mid], and of the
+            // right run not less than a[mid-1], are already in place.
+            lo = gallopForward(a, lo, mid, a[mid], true);
+            hi = gallopBackward(a, mid, hi, a[mid - 1], false);
+
+            if (mid - lo <= hi - mid) {
+                mergeLo(lo, mid, hi);
+            } else {
+                mergeHi(lo, mid, hi);
+            }
+        }
+
+        private int[] buffer(int len) {
+            if (buf.length < len)
+                buf = new int[Math.max(len, Math.min(a.length / 2, 2 * buf.length))];
+            return buf;
+        }
+
+        /**
+         * Merges from the front, with the left run copied to the buffer.
+         */
+        private void mergeLo(int lo, int mid, int hi) {
+            int len1 = mid - lo;
+            int[] b = buffer(len1);
+            System.arraycopy(a, lo, b, 0, len1);
+
+            int i = 0;
+            int j = mid;
+            int k = lo;
+            int leftWins = 0;
+            int rightWins = 0;
+            while (i < len1 && j < hi) {
+                if (a[j] < b[i]) {
+                    a[k++] = a[j++];
+                    leftWins = 0;
+                    if (++rightWins >= MIN_GALLOP) {
+                        int end = gallopForward(a, j, hi, b[i], false);
+                        System.arraycopy(a, j, a, k, end - j);
+                        k += end - j;
+                        j = end;
+                        rightWins = 0;
+                    }
+                } else {
+                    a[k++] = b[i++];
+                    rightWins = 0;
+                    if (++leftWins >= MIN_GALLOP && j < hi) {
+                        int end = gallopForward(b, i, len1, a[j], true);
+                        System.arraycopy(b, i, a, k, end - i);
+                        k += end - i;
+                        i = end;
+                        leftWins = 0;
+                    }
+                }
+            }
+            System.arraycopy(b, i, a, k, len1 - i);
+        }
+
+        /**
+         * Merges from the back, with the right run copied to the buffer.
+         */
+        private void mergeHi(int lo, int mid, int hi) {
+            int len2 = hi - mid;
+            int[] b = buffer(len2);
+            System.arraycopy(a, mid, b, 0, len2);
+
+            int i = mid - 1;
+            int j = len2 - 1;
+            int k = hi - 1;
+            int leftWins = 0;
+            int rightWins = 0;
+            while (i >= lo && j >= 0) {
+                if (a[i] > b[j]) {
+                    a[k--] = a[i--];
+                    rightWins = 0;
+                    if (++leftWins >= MIN_GALLOP) {
+                        int start = gallopBackward(a, lo, i + 1, b[j], true);
+                        int len = i + 1 - start;
+                        System.arraycopy(a, start, a, k - len + 1, len);
+                        k -= len;
+                        i = start - 1;
+                        leftWins = 0;
+                    }
+                } else {
+                    a[k--] = b[j--];
+                    leftWins = 0;
+                    if (++rightWins >= MIN_GALLOP && i >= lo) {
+                        int start = gallopBackward(b, 0, j + 1, a[i], false);
+                        int len = j + 1 - start;
+                        System.arraycopy(b, start, a, k - len + 1, len);
+                        k -= len;
+                        j = start - 1;
+                        rightWins = 0;
+                    }
+                }
+            }
+            System.arraycopy(b, 0, a, lo, j + 1);
+        }
+    }
+}
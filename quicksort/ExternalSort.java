@@ -0,0 +1,390 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * External merge sort for binary files of ints that do not fit in memory.
+ * The first phase reads the input in chunks that fill the memory budget,
+ * sorts each chunk with QuickSort, or ParallelQuickSort if a pool is
+ * given, and writes it to a temporary run file. The second phase merges
+ * the runs with a loser tree, which finds the next smallest element of k
+ * runs with log2(k) comparisons. If there are too many runs to give each
+ * of them a large read buffer, groups of runs are first merged into
+ * longer runs.
+ *
+ * All file access goes through FileChannels and large direct buffers, so
+ * reads and writes are sequential. The buffers of each phase are allocated
+ * once per sort and reused for every run. No more than maxMemory bytes are
+ * used for the chunk and the buffers. An ExternalSort may be used for
+ * several files, but not by several threads at once.
+ * @author agent
+ * @version Oct 2026
+ */
+public class ExternalSort {
+    /**
+     * The smallest memory budget accepted.
+     */
+    public static final long MIN_MEMORY = 1 << 16;
+
+    /**
+     * Merges read each run through a buffer of at least this many bytes
+     * if the memory budget allows it.
+     */
+    private static final int MERGE_BUFFER = 1 << 18;
+
+    /**
+     * Largest buffer used to read the input in the first phase.
+     */
+    private static final int READ_BUFFER = 1 << 20;
+
+    /**
+     * Largest buffer used by a merge. Larger buffers do not make the reads
+     * faster.
+     */
+    private static final int MAX_BUFFER = 1 << 23;
+
+    /**
+     * Key of an exhausted run in the loser tree. Larger than every int.
+     */
+    private static final long EXHAUSTED = Long.MAX_VALUE;
+
+    private final long maxMemory;
+    private final ByteOrder order;
+    private final Path tempDir;
+    private final IntSorter sorter;
+
+    /**
+     * Creates a sequential sorter for little-endian files that uses at
+     * most maxMemory bytes and writes its runs to the default temporary
+     * directory.
+     *
+     * @throws IllegalArgumentException if maxMemory < MIN_MEMORY
+     */
+    public ExternalSort(long maxMemory) {
+        this(maxMemory, ByteOrder.LITTLE_ENDIAN, null, null);
+    }
+
+    /**
+     * Creates a sorter that uses at most maxMemory bytes.
+     *
+     * @param order the byte order of the files
+     * @param pool if not null, chunks are sorted in parallel in this pool
+     * @param tempDir directory for the runs, or null for the default
+     *        temporary directory
+     * @throws IllegalArgumentException if maxMemory < MIN_MEMORY or
+     *         order is null
+     */
+    public ExternalSort(long maxMemory, ByteOrder order, ForkJoinPool pool, Path tempDir) {
+        if (maxMemory < MIN_MEMORY)
+            throw new IllegalArgumentException("maxMemory=" + maxMemory);
+        if (order == null)
+            throw new IllegalArgumentException("order=null");
+
+        this.maxMemory = maxMemory;
+        this.order = order;
+        this.tempDir = tempDir;
+        this.sorter = pool == null
+                ? new QuickSort()
+                : new ParallelQuickSort(pool, ParallelQuickSort.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Sorts the ints in the file in into ascending order and writes them
+     * to out, which is replaced if it exists. in and out may be the same
+     * file.
+     *
+     * @return the number of ints sorted
+     * @throws IOException if a file cannot be read or written, or the
+     *         length of in is not a multiple of 4
+     */
+    public long sort(Path in, Path out) throws IOException {
+        Deque<Path> runs = new ArrayDeque<>();
+        try {
+            long n = writeRuns(in, runs);
+            int fanIn = maxFanIn();
+            ByteBuffer[] buffers = mergeBuffers(Math.min(runs.size(), fanIn));
+            while (runs.size() > fanIn) {
+                // The group stays in runs until it is merged, so that its
+                // files are deleted below if the merge fails.
+                List<Path> group = new ArrayList<>(fanIn);
+                for (Path run : runs) {
+                    if (group.size() == fanIn)
+                        break;
+                    group.add(run);
+                }
+                Path merged = createRun();
+                runs.addLast(merged);
+                merge(group, merged, buffers);
+                for (int i = 0; i < fanIn; i++)
+                    runs.removeFirst();
+                deleteAll(group);
+            }
+            merge(new ArrayList<>(runs), out, buffers);
+            return n;
+        } finally {
+            deleteAll(runs);
+        }
+    }
+
+    /**
+     * Splits in into sorted runs, appends their files to runs and returns
+     * the number of ints read.
+     */
+    private long writeRuns(Path in, Deque<Path> runs) throws IOException {
+        try (FileChannel ch = FileChannel.open(in, StandardOpenOption.READ)) {
+            long bytes = ch.size();
+            if (bytes % 4 != 0)
+                throw new IOException("length of " + in + " is not a multiple of 4: " + bytes);
+
+            long n = bytes / 4;
+            int bufferBytes = (int) Math.min(READ_BUFFER, maxMemory / 16) & ~3;
+            long chunkInts = Math.min((maxMemory - 2 * bufferBytes) / 4, Integer.MAX_VALUE - 8);
+            int[] chunk = new int[(int) Math.min(chunkInts, n)];
+            ByteBuffer buf = ByteBuffer.allocateDirect(bufferBytes).order(order);
+            ByteBuffer outBuf = ByteBuffer.allocateDirect(bufferBytes).order(order);
+
+            for (long done = 0; done < n; ) {
+                int len = (int) Math.min(chunk.length, n - done);
+                for (int i = 0; i < len; ) {
+                    buf.clear();
+                    buf.limit((int) Math.min(buf.capacity(), 4L * (len - i)));
+                    while (buf.hasRemaining()) {
+                        if (ch.read(buf) < 0)
+                            throw new IOException(in + " was truncated while reading");
+                    }
+                    buf.flip();
+                    int k = buf.remaining() / 4;
+                    buf.asIntBuffer().get(chunk, i, k);
+                    i += k;
+                }
+                done += len;
+
+                // A short last chunk is padded with the largest int, which
+                // sorts after the real elements.
+                Arrays.fill(chunk, len, chunk.length, Integer.MAX_VALUE);
+                sorter.sort(chunk);
+
+                Path run = createRun();
+                runs.addLast(run);
+                try (Output w = new Output(run, outBuf)) {
+                    w.put(chunk, len);
+                }
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Returns the number of runs merged at once: as many as can each get a
+     * buffer of MERGE_BUFFER bytes, with one more buffer for the output,
+     * but at least 2.
+     */
+    private int maxFanIn() {
+        return (int) Math.max(2, Math.min(maxMemory / MERGE_BUFFER - 1, 1 << 16));
+    }
+
+    /**
+     * Returns the buffers of merges of at most k runs: one per run and one
+     * for the output, which share the memory budget.
+     */
+    private ByteBuffer[] mergeBuffers(int k) {
+        int bufferBytes = (int) Math.min(maxMemory / (k + 1), MAX_BUFFER) & ~3;
+        ByteBuffer[] buffers = new ByteBuffer[k + 1];
+        for (int i = 0; i < buffers.length; i++)
+            buffers[i] = ByteBuffer.allocateDirect(bufferBytes).order(order);
+        return buffers;
+    }
+
+    /**
+     * Merges the sorted runs into out. buffers[i] is used to read run i,
+     * and buffers[runs.size()] to write out.
+     */
+    private void merge(List<Path> runs, Path out, ByteBuffer[] buffers) throws IOException {
+        int k = runs.size();
+        Input[] inputs = new Input[k];
+        try {
+            for (int i = 0; i < k; i++)
+                inputs[i] = new Input(runs.get(i), buffers[i]);
+            try (Output w = new Output(out, buffers[k])) {
+                if (k > 0)
+                    new LoserTree(inputs).drainTo(w);
+            }
+        } finally {
+            for (Input r : inputs) {
+                if (r != null)
+                    r.close();
+            }
+        }
+    }
+
+    private Path createRun() throws IOException {
+        return tempDir == null
+                ? Files.createTempFile("run", ".bin")
+                : Files.createTempFile(tempDir, "run", ".bin");
+    }
+
+    private static void deleteAll(Iterable<Path> files) throws IOException {
+        for (Path f : files)
+            Files.deleteIfExists(f);
+    }
+
+    /**
+     * Tournament tree over the heads of k runs. Every internal node holds
+     * the run that lost the match played there and tree[0] holds the
+     * overall winner. After the winner's run advances, only the matches
+     * on the path from its leaf to the root are replayed.
+     */
+    private static final class LoserTree {
+        private final Input[] inputs;
+        private final long[] key;
+        private final int[] tree;
+        private final int k;
+
+        LoserTree(Input[] inputs) throws IOException {
+            this.inputs = inputs;
+            this.k = inputs.length;
+            this.key = new long[k];
+            this.tree = new int[k];
+            for (int i = 0; i < k; i++)
+                key[i] = inputs[i].next();
+            tree[0] = build(1);
+        }
+
+        /**
+         * Plays the matches below node, where leaves k..2k-1 are the runs,
+         * and returns the winner.
+         */
+        private int build(int node) {
+            if (node >= k)
+                return node - k;
+            int left = build(2 * node);
+            int right = build(2 * node + 1);
+            if (key[left] <= key[right]) {
+                tree[node] = right;
+                return left;
+            }
+            tree[node] = left;
+            return right;
+        }
+
+        void drainTo(Output w) throws IOException {
+            while (true) {
+                int winner = tree[0];
+                long x = key[winner];
+                if (x == EXHAUSTED)
+                    return;
+                w.put((int) x);
+
+                key[winner] = inputs[winner].next();
+                for (int node = (winner + k) >>> 1; node > 0; node >>>= 1) {
+                    int loser = tree[node];
+                    if (key[loser] < key[winner]) {
+                        tree[node] = winner;
+                        winner = loser;
+                    }
+                }
+                tree[0] = winner;
+            }
+        }
+    }
+
+    /**
+     * Buffered reader of the ints in a file, through a buffer that is
+     * cleared and then owned by the reader until it is closed.
+     */
+    private static final class Input implements AutoCloseable {
+        private final FileChannel ch;
+        private final ByteBuffer buf;
+
+        Input(Path file, ByteBuffer buf) throws IOException {
+            ch = FileChannel.open(file, StandardOpenOption.READ);
+            this.buf = buf;
+            buf.clear().flip();
+        }
+
+        /**
+         * Returns the next int, or EXHAUSTED at the end of the file.
+         */
+        long next() throws IOException {
+            if (buf.remaining() < 4 && !fill())
+                return EXHAUSTED;
+            return buf.getInt();
+        }
+
+        private boolean fill() throws IOException {
+            buf.compact();
+            while (buf.hasRemaining() && ch.read(buf) >= 0) {
+                // keep reading until the buffer is full or the file ends
+            }
+            buf.flip();
+            return buf.remaining() >= 4;
+        }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+
+    /**
+     * Buffered writer of ints to a file, through a buffer that is cleared
+     * and then owned by the writer until it is closed.
+     */
+    private static final class Output implements AutoCloseable {
+        private final FileChannel ch;
+        private final ByteBuffer buf;
+
+        Output(Path file, ByteBuffer buf) throws IOException {
+            ch = FileChannel.open(file, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buf = buf;
+            buf.clear();
+        }
+
+        void put(int x) throws IOException {
+            if (buf.remaining() < 4)
+                drain();
+            buf.putInt(x);
+        }
+
+        /**
+         * Writes a[0..len-1].
+         */
+        void put(int[] a, int len) throws IOException {
+            for (int i = 0; i < len; ) {
+                if (buf.remaining() < 4)
+                    drain();
+                int k = Math.min(len - i, buf.remaining() / 4);
+                buf.asIntBuffer().put(a, i, k);
+                buf.position(buf.position() + 4 * k);
+                i += k;
+            }
+        }
+
+        private void drain() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining())
+                ch.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                ch.close();
+            }
+        }
+    }
+}
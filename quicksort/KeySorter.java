@@ -0,0 +1,25 @@
+/**
+ * Sort int keys together with other data, and long arrays
+ */
+public interface KeySorter extends IntSorter {
+    /**
+     * Sorts keys into ascending numerical order and moves values[i]
+     * along with keys[i]. Entries with equal keys end up ordered by
+     * value, compared as unsigned ints.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    void sort(int[] keys, int[] values);
+
+    /**
+     * Returns the permutation p that sorts keys, so that keys[p[0]],
+     * keys[p[1]], ... is in ascending order. Equal keys keep their
+     * relative order. The keys are not changed.
+     */
+    int[] argsort(int[] keys);
+
+    /**
+     * Sorts the array into ascending numerical order.
+     */
+    void sort(long[] v);
+}
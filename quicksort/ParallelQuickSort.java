@@ -0,0 +1,113 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel QuickSort implementation.
+ * Subarrays larger than a threshold are partitioned and the two parts are
+ * sorted as separate ForkJoin tasks; smaller subarrays are sorted with the
+ * sequential QuickSort.
+ * @author agent
+ * @version Oct 2026
+ */
+public class ParallelQuickSort implements IntSorter {
+    /**
+     * Default size below which a subarray is sorted sequentially.
+     */
+    public static final int DEFAULT_THRESHOLD = 1 << 13;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final QuickSort sequential;
+
+    /**
+     * Creates a sorter that runs in the common ForkJoinPool with the
+     * default threshold.
+     */
+    public ParallelQuickSort() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a sorter that runs in the given pool and sorts subarrays
+     * with fewer than threshold elements sequentially.
+     *
+     * @throws IllegalArgumentException if threshold < 2
+     */
+    public ParallelQuickSort(ForkJoinPool pool, int threshold) {
+        this(pool, threshold, QuickSort.Partition.MEDIAN_OF_3);
+    }
+
+    /**
+     * Creates a sorter that runs in the given pool, sorts subarrays with
+     * fewer than threshold elements sequentially and partitions with the
+     * given strategy.
+     *
+     * @throws IllegalArgumentException if threshold < 2
+     */
+    public ParallelQuickSort(ForkJoinPool pool, int threshold, QuickSort.Partition strategy) {
+        this(pool, threshold, new QuickSort(strategy));
+    }
+
+    /**
+     * Creates a sorter that runs in the given pool and partitions and
+     * sorts small subarrays with the given QuickSort. With a seeded
+     * QuickSort every sort of the same input partitions the same way.
+     *
+     * @throws IllegalArgumentException if threshold < 2
+     */
+    public ParallelQuickSort(ForkJoinPool pool, int threshold, QuickSort sequential) {
+        if (threshold < 2)
+            throw new IllegalArgumentException("threshold=" + threshold);
+        if (sequential == null)
+            throw new IllegalArgumentException("sequential=null");
+
+        this.pool = pool;
+        this.threshold = threshold;
+        this.sequential = sequential;
+    }
+
+    @Override
+    public void sort(int[] v) {
+        if(v.length < threshold) {
+            sequential.sort(v);
+        } else {
+            pool.invoke(new SortTask(v, 0, v.length - 1, QuickSort.depthLimit(v.length),
+                                     sequential.newContext()));
+        }
+    }
+
+    /**
+     * Sorts a[first..last]. After depth partitioning levels the rest is
+     * sorted by heapsort, as in QuickSort.
+     */
+    @SuppressWarnings("serial")
+    private class SortTask extends RecursiveAction {
+        private final int[] a;
+        private final int first;
+        private final int last;
+        private final int depth;
+        private final QuickSort.Context ctx;
+
+        SortTask(int[] a, int first, int last, int depth, QuickSort.Context ctx) {
+            this.a = a;
+            this.first = first;
+            this.last = last;
+            this.depth = depth;
+            this.ctx = ctx;
+        }
+
+        @Override
+        protected void compute() {
+            if((last - first) < threshold) {
+                sequential.qsort(a, first, last, depth, ctx);
+            } else if (depth == 0) {
+                QuickSort.heapSort(a, first, last);
+            } else {
+                sequential.partition(a, first, last, ctx);
+                invokeAll(new SortTask(a, first, ctx.leftLast, depth - 1, ctx.split()),
+                          new SortTask(a, ctx.midFirst, ctx.midLast, depth - 1, ctx.split()),
+                          new SortTask(a, ctx.rightFirst, last, depth - 1, ctx.split()));
+            }
+        }
+    }
+}
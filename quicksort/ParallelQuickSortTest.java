@@ -0,0 +1,61 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Randomized test of ParallelQuickSort against Arrays.sort. Every
+ * partition strategy is run with thresholds from 2 up, so that the
+ * partitions themselves, and not only the sequential QuickSort, see
+ * subarrays of every small length. Run with java ParallelQuickSortTest;
+ * it throws an AssertionError on the first array sorted wrongly.
+ * @author agent
+ * @version Oct 2026
+ */
+public class ParallelQuickSortTest {
+    private static final int MAX_THRESHOLD = QuickSort.INSERTION_SORT_THRESHOLD + 10;
+    private static final int ARRAYS_PER_CASE = 200;
+    private static final int MAX_LENGTH = 300;
+
+    public static void main(String[] args) {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random rnd = new Random(42);
+        int cases = 0;
+        try {
+            for (QuickSort.Partition strategy : QuickSort.Partition.values()) {
+                for (int threshold = 2; threshold <= MAX_THRESHOLD; threshold++) {
+                    IntSorter sorter = new ParallelQuickSort(pool, threshold, strategy);
+                    for (int i = 0; i < ARRAYS_PER_CASE; i++) {
+                        check(sorter, randomArray(rnd), strategy, threshold);
+                        cases++;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("ParallelQuickSortTest: " + cases + " arrays sorted");
+    }
+
+    /**
+     * Returns an array of random length whose elements are either few
+     * distinct values or spread over the whole int range.
+     */
+    private static int[] randomArray(Random rnd) {
+        int[] a = new int[rnd.nextInt(MAX_LENGTH)];
+        boolean fewValues = rnd.nextBoolean();
+        for (int i = 0; i < a.length; i++)
+            a[i] = fewValues ? rnd.nextInt(5) : rnd.nextInt();
+        return a;
+    }
+
+    private static void check(IntSorter sorter, int[] a, QuickSort.Partition strategy,
+                              int threshold) {
+        int[] expected = a.clone();
+        Arrays.sort(expected);
+        int[] actual = a.clone();
+        sorter.sort(actual);
+        if (!Arrays.equals(actual, expected))
+            throw new AssertionError(strategy + ", threshold " + threshold
+                                     + ": " + Arrays.toString(a));
+    }
+}
@@ -1,55 +1,691 @@
-import java.util.Collections;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * QuickSort implementation.
  * This class is used for Kattis tests
+ *
+ * A QuickSort has no mutable state, so one instance may be shared by
+ * several threads. Each call draws its random pivots from its own
+ * SplittableRandom, which is seeded from ThreadLocalRandom, or from a
+ * fixed seed in deterministic mode.
  * @author Adam Jacobs
  * @version Feb 2017
  */
-public class QuickSort implements IntSorter {
-    Random rnd = new Random();
-    
+public class QuickSort implements KeySorter {
+    /**
+     * Ways to partition a subarray.
+     */
+    public enum Partition {
+        /**
+         * Hoare partition around one randomly chosen element.
+         */
+        RANDOM,
+
+        /**
+         * Hoare partition around the median of three randomly chosen
+         * elements.
+         */
+        MEDIAN_OF_3,
+
+        /**
+         * Hoare partition around Tukey's ninther, the median of the
+         * medians of three groups of three evenly spaced elements. Small
+         * subarrays use MEDIAN_OF_3.
+         */
+        NINTHER,
+
+        /**
+         * Yaroslavskiy's dual-pivot partition into three parts, as used by
+         * Arrays.sort.
+         */
+        DUAL_PIVOT,
+
+        /**
+         * BlockQuicksort partition: elements are compared in blocks and
+         * the offsets of misplaced elements are buffered, so that the
+         * comparisons do not cause branches that the processor can
+         * mispredict. The pivot is the median of three.
+         */
+        BLOCK,
+
+        /**
+         * Three-way (fat) partition around the median of three into the
+         * elements less than, equal to and greater than the pivot. The
+         * equal elements are not sorted again, so inputs with many
+         * duplicate keys sort in close to linear time.
+         */
+        THREE_WAY
+    }
+
+    /**
+     * Subarrays with fewer elements than this are sorted by insertion sort.
+     */
+    static final int INSERTION_SORT_THRESHOLD = 40;
+
+    /**
+     * select falls back to median-of-medians pivots once its partitions
+     * have handled this many times the length of the array.
+     */
+    private static final int SELECT_WORK_FACTOR = 6;
+
+    /**
+     * Subarrays with fewer elements than this use MEDIAN_OF_3 instead of
+     * NINTHER.
+     */
+    private static final int NINTHER_THRESHOLD = 200;
+
+    /**
+     * Subarrays with fewer elements than this are partitioned around one
+     * pivot instead of two, since the five pivot candidates of DUAL_PIVOT
+     * need distinct positions.
+     */
+    private static final int DUAL_PIVOT_THRESHOLD = 7;
+
+    /**
+     * Block size of the BLOCK partition.
+     */
+    private static final int BLOCK_SIZE = 128;
+
+    private final Partition strategy;
+    private final boolean seeded;
+    private final long seed;
+
+    /**
+     * Creates a sorter that uses the MEDIAN_OF_3 partition.
+     */
+    public QuickSort() {
+        this(Partition.MEDIAN_OF_3);
+    }
+
+    /**
+     * Creates a sorter that uses the given partition strategy.
+     */
+    public QuickSort(Partition strategy) {
+        this(strategy, false, 0);
+    }
+
+    /**
+     * Creates a deterministic sorter that uses the given partition
+     * strategy. Every call starts its pivot sampling from the given seed,
+     * so the same input is always partitioned the same way, which makes
+     * slow or failing runs reproducible.
+     */
+    public QuickSort(Partition strategy, long seed) {
+        this(strategy, true, seed);
+    }
+
+    private QuickSort(Partition strategy, boolean seeded, long seed) {
+        if (strategy == null)
+            throw new IllegalArgumentException("strategy=null");
+
+        this.strategy = strategy;
+        this.seeded = seeded;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the partition strategy of this sorter.
+     */
+    public Partition strategy() {
+        return strategy;
+    }
+
+    /**
+     * Returns a new Context for one call to sort.
+     */
+    Context newContext() {
+        return new Context(new SplittableRandom(
+                seeded ? seed : ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Scratch space and pivot random numbers for one call to sort. A
+     * Context must not be shared between threads.
+     */
+    static final class Context {
+        private final SplittableRandom rnd;
+        private int[] offsetsL;
+        private int[] offsetsR;
+
+        /**
+         * The parts left by the last call to partition(a, first, last):
+         * a[first..leftLast], a[midFirst..midLast] and a[rightFirst..last]
+         * still need sorting; any part may be empty. Every element
+         * between the parts is already in its final position.
+         */
+        int leftLast;
+        int midFirst;
+        int midLast;
+        int rightFirst;
+
+        private Context(SplittableRandom rnd) {
+            this.rnd = rnd;
+        }
+
+        /**
+         * Returns a new Context for a subarray that is sorted in parallel
+         * with this one. Its random numbers are split off from this one's,
+         * so a seeded sort stays deterministic.
+         */
+        Context split() {
+            return new Context(rnd.split());
+        }
+
+        private void set(int leftLast, int midFirst, int midLast, int rightFirst) {
+            this.leftLast = leftLast;
+            this.midFirst = midFirst;
+            this.midLast = midLast;
+            this.rightFirst = rightFirst;
+        }
+
+        int[] offsetsL() {
+            if (offsetsL == null)
+                offsetsL = new int[BLOCK_SIZE];
+            return offsetsL;
+        }
+
+        int[] offsetsR() {
+            if (offsetsR == null)
+                offsetsR = new int[BLOCK_SIZE];
+            return offsetsR;
+        }
+    }
+
     /**
     * QUICKSORT baby!
     */
-    
+
     @Override
     public void sort(int[] v) {
-        qsort(v, 0, v.length - 1);
+        qsort(v, 0, v.length - 1, depthLimit(v.length), newContext());
+    }
+
+    /**
+     * {@inheritDoc KeySorter} Each key and value are packed into one long
+     * and the longs are sorted, so this needs 8n bytes of extra memory.
+     */
+    @Override
+    public void sort(int[] keys, int[] values) {
+        if (keys.length != values.length)
+            throw new IllegalArgumentException("keys.length=" + keys.length
+                                               + ", values.length=" + values.length);
+
+        long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            packed[i] = entry(keys[i], values[i]);
+        sort(packed);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(packed[i]);
+            values[i] = value(packed[i]);
+        }
+    }
+
+    /**
+     * {@inheritDoc KeySorter} Each key and its index are packed into one
+     * long, so the index breaks ties and the result is stable.
+     */
+    @Override
+    public int[] argsort(int[] keys) {
+        long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            packed[i] = entry(keys[i], i);
+        sort(packed);
+        int[] p = new int[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            p[i] = value(packed[i]);
+        return p;
+    }
+
+    /**
+     * {@inheritDoc KeySorter} Uses a median-of-3 Hoare partition with the
+     * same insertion sort cutoff and heapsort fallback as sort(int[]),
+     * whatever the partition strategy of this sorter.
+     */
+    @Override
+    public void sort(long[] v) {
+        qsort(v, 0, v.length - 1, depthLimit(v.length), newContext().rnd);
+    }
+
+    /**
+     * Rearranges a so that a[k] holds the element that would be there if
+     * a were sorted, no element before it is greater and no element after
+     * it is smaller. Returns a[k]. This is quickselect with the partition
+     * strategy of this sorter, which takes expected O(n) time. If the
+     * pivots are so bad that the partitions have handled more than
+     * SELECT_WORK_FACTOR * n elements, the rest is done with
+     * median-of-medians pivots, so the worst case is O(n) too.
+     *
+     * @throws IllegalArgumentException if k is not an index of a
+     */
+    public int select(int[] a, int k) {
+        if (k < 0 || k >= a.length)
+            throw new IllegalArgumentException("k=" + k + ", length=" + a.length);
+
+        select(a, 0, a.length - 1, k, newContext());
+        return a[k];
     }
 
-    private void qsort(int[] a, int first, int last) {
-        if (first >= last)
+    /**
+     * Rearranges a so that a[0..k-1] holds its k smallest elements in
+     * ascending order. The order of the rest is unspecified. Takes
+     * expected O(n + k log k) time.
+     *
+     * @throws IllegalArgumentException if k < 0 or k > a.length
+     */
+    public void partialSort(int[] a, int k) {
+        if (k < 0 || k > a.length)
+            throw new IllegalArgumentException("k=" + k + ", length=" + a.length);
+        if (k == 0)
             return;
 
-        if((last - first) < 40) {
-            for(int i = first + 1; i <= last; i++) {
-                int x = a[i];
-                int j = i - 1;
+        Context ctx = newContext();
+        select(a, 0, a.length - 1, k - 1, ctx);
+        qsort(a, 0, k - 2, depthLimit(k - 1), ctx);
+    }
 
-                while(j >= first && a[j] > x) {
-                    a[j+1] = a[j];
-                    j--;
-                }
-                a[j+1] = x;
+    /**
+     * Returns the min(k, a.length) largest elements of a in descending
+     * order, without changing a. See TopK.
+     *
+     * @throws IllegalArgumentException if k < 0
+     */
+    public static int[] topK(int[] a, int k) {
+        TopK top = new TopK(Math.min(k, a.length));
+        top.addAll(a);
+        return top.toArray();
+    }
+
+    /**
+     * Moves the element of rank k - first in a[first..last] to a[k], as
+     * described in select(a, k).
+     */
+    void select(int[] a, int first, int last, int k, Context ctx) {
+        long work = (long) SELECT_WORK_FACTOR * (last - first + 1);
+        while((last - first) >= INSERTION_SORT_THRESHOLD) {
+            work -= last - first + 1;
+            if (work < 0) {
+                medianOfMediansSelect(a, first, last, k);
+                return;
             }
-            return;
-        } else {
+
+            partition(a, first, last, ctx);
+            if (k <= ctx.leftLast) {
+                last = ctx.leftLast;
+            } else if (k >= ctx.rightFirst) {
+                first = ctx.rightFirst;
+            } else if (k >= ctx.midFirst && k <= ctx.midLast) {
+                first = ctx.midFirst;
+                last = ctx.midLast;
+            } else {
+                // a[k] is between the parts, so it is in place.
+                return;
+            }
+        }
+        insertionSort(a, first, last);
+    }
+
+    /**
+     * Worst case O(n) selection: the pivot is the median of the medians
+     * of groups of five elements, which has at least 30% of the elements
+     * on either side of it.
+     */
+    private static void medianOfMediansSelect(int[] a, int first, int last, int k) {
+        while((last - first) >= INSERTION_SORT_THRESHOLD) {
+            swap(a, first, medianOfMedians(a, first, last));
+            long bounds = threeWay(a, first, last);
+            int lt = lower(bounds);
+            int gt = upper(bounds);
+            if (k < lt) {
+                last = lt - 1;
+            } else if (k > gt) {
+                first = gt + 1;
+            } else {
+                return;
+            }
+        }
+        insertionSort(a, first, last);
+    }
+
+    /**
+     * Returns the index of the median of medians of a[first..last]. The
+     * medians of the groups are moved to the front of the range.
+     */
+    private static int medianOfMedians(int[] a, int first, int last) {
+        int medians = first;
+        for (int i = first; i + 4 <= last; i += 5) {
+            insertionSort(a, i, i + 4);
+            swap(a, medians++, i + 2);
+        }
+        int mid = first + (medians - first - 1) / 2;
+        medianOfMediansSelect(a, first, medians - 1, mid);
+        return mid;
+    }
+
+    /**
+     * Returns the number of partitioning levels after which a subarray of
+     * n elements is sorted by heapsort instead: 2 * floor(log2(n)).
+     */
+    static int depthLimit(int n) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+    }
+
+    /**
+     * Sorts a[first..last]. The method recurses on the smaller parts and
+     * loops on the largest, so the call stack stays O(log n) deep. After
+     * depth partitioning levels, which only happens if the pivots are
+     * consistently bad, the rest is sorted by heapsort, so the worst case
+     * is O(n log n).
+     */
+    void qsort(int[] a, int first, int last, int depth, Context ctx) {
+        while((last - first) >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, first, last);
+                return;
+            }
+
             // Partition the elements
-            int pivot = partition(a, first, last);
-            qsort(a, first, pivot);
-            qsort(a, pivot + 1, last);
+            partition(a, first, last, ctx);
+            int leftLast = ctx.leftLast;
+            int midFirst = ctx.midFirst;
+            int midLast = ctx.midLast;
+            int rightFirst = ctx.rightFirst;
+
+            int left = leftLast - first;
+            int mid = midLast - midFirst;
+            int right = last - rightFirst;
+            if (left >= mid && left >= right) {
+                qsort(a, midFirst, midLast, depth, ctx);
+                qsort(a, rightFirst, last, depth, ctx);
+                last = leftLast;
+            } else if (right >= mid) {
+                qsort(a, first, leftLast, depth, ctx);
+                qsort(a, midFirst, midLast, depth, ctx);
+                first = rightFirst;
+            } else {
+                qsort(a, first, leftLast, depth, ctx);
+                qsort(a, rightFirst, last, depth, ctx);
+                first = midFirst;
+                last = midLast;
+            }
         }
+        insertionSort(a, first, last);
     }
 
-    private int partition(int[] a, int first, int last) {
-        int num1 = a[rnd.nextInt(last-first + 1) + first];
-        int num2 = a[rnd.nextInt(last-first + 1) + first];
-        int num3 = a[rnd.nextInt(last-first + 1) + first];
+    /**
+     * Sorts a[first..last] by heapsort.
+     */
+    static void heapSort(int[] a, int first, int last) {
+        int n = last - first + 1;
+        for (int i = n / 2 - 1; i >= 0; i--)
+            siftDown(a, first, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, first, first + end);
+            siftDown(a, first, 0, end);
+        }
+    }
+
+    /**
+     * Restores the max-heap a[first..first+n-1] below index i.
+     */
+    private static void siftDown(int[] a, int first, int i, int n) {
+        int x = a[first + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n)
+                break;
+            if (child + 1 < n && a[first + child + 1] > a[first + child])
+                child++;
+            if (a[first + child] <= x)
+                break;
+            a[first + i] = a[first + child];
+            i = child;
+        }
+        a[first + i] = x;
+    }
 
-        // get middle element of the random numbers!
-        int pivot = a[rnd.nextInt(last-first + 1) + first];
+    /**
+     * Sorts a[first..last]. The long version of qsort.
+     */
+    private static void qsort(long[] a, int first, int last, int depth, SplittableRandom rnd) {
+        while((last - first) >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, first, last);
+                return;
+            }
+
+            swap(a, first, medianOf3(a, randomIndex(rnd, first, last),
+                                     randomIndex(rnd, first, last),
+                                     randomIndex(rnd, first, last)));
+            int j = hoarePartition(a, first, last);
+            if (j - first < last - j) {
+                qsort(a, first, j, depth, rnd);
+                first = j + 1;
+            } else {
+                qsort(a, j + 1, last, depth, rnd);
+                last = j;
+            }
+        }
+        insertionSort(a, first, last);
+    }
+
+    private static void insertionSort(long[] a, int first, int last) {
+        for(int i = first + 1; i <= last; i++) {
+            long x = a[i];
+            int j = i - 1;
+
+            while(j >= first && a[j] > x) {
+                a[j+1] = a[j];
+                j--;
+            }
+            a[j+1] = x;
+        }
+    }
+
+    private static void heapSort(long[] a, int first, int last) {
+        int n = last - first + 1;
+        for (int i = n / 2 - 1; i >= 0; i--)
+            siftDown(a, first, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, first, first + end);
+            siftDown(a, first, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] a, int first, int i, int n) {
+        long x = a[first + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n)
+                break;
+            if (child + 1 < n && a[first + child + 1] > a[first + child])
+                child++;
+            if (a[first + child] <= x)
+                break;
+            a[first + i] = a[first + child];
+            i = child;
+        }
+        a[first + i] = x;
+    }
+
+    private static int medianOf3(long[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            if (a[j] < a[k])
+                return j;
+            return a[i] < a[k] ? k : i;
+        }
+        if (a[i] < a[k])
+            return i;
+        return a[j] < a[k] ? k : j;
+    }
+
+    private static int hoarePartition(long[] a, int first, int last) {
+        long pivot = a[first];
+        int i = first - 1;
+        int j = last + 1;
+
+        while(true) {
+            do {
+                j--;
+            } while (a[j] > pivot);
+
+            do {
+                i++;
+            } while (a[i] < pivot);
+
+            if(i < j) {
+                swap(a, i, j);
+            } else {
+                return j;
+            }
+        }
+    }
+
+    /**
+     * Packs key and value into a long that orders like the key, and
+     * like the value as unsigned int for equal keys.
+     */
+    private static long entry(int key, int value) {
+        return ((long) key << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    private static int key(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int value(long entry) {
+        return (int) entry;
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    /**
+     * Sorts a[first..last] by insertion.
+     */
+    static void insertionSort(int[] a, int first, int last) {
+        for(int i = first + 1; i <= last; i++) {
+            int x = a[i];
+            int j = i - 1;
+
+            while(j >= first && a[j] > x) {
+                a[j+1] = a[j];
+                j--;
+            }
+            a[j+1] = x;
+        }
+    }
+
+    /**
+     * Partitions a[first..last], first < last, with the strategy of this
+     * sorter and stores the parts that still need sorting in ctx. Every
+     * element of a part is <= every element of the parts to its right.
+     */
+    void partition(int[] a, int first, int last, Context ctx) {
+        switch (strategy) {
+            case BLOCK: {
+                int j = blockPartition(a, first, last, ctx);
+                ctx.set(j, j + 1, j, j + 1);
+                break;
+            }
+            case DUAL_PIVOT: {
+                if (last - first + 1 < DUAL_PIVOT_THRESHOLD) {
+                    singlePivotPartition(a, first, last, ctx);
+                    break;
+                }
+                long bounds = dualPivotPartition(a, first, last);
+                int lt = lower(bounds);
+                int gt = upper(bounds);
+                long middle = middle(a, first, last, lt, gt);
+                ctx.set(lt - 1, lower(middle), upper(middle), gt + 1);
+                break;
+            }
+            case THREE_WAY: {
+                long bounds = threeWayPartition(a, first, last, ctx.rnd);
+                ctx.set(lower(bounds) - 1, first, first - 1, upper(bounds) + 1);
+                break;
+            }
+            default: {
+                singlePivotPartition(a, first, last, ctx);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Hoare partition of a[first..last] around the pivot chosen by
+     * pivotIndex.
+     */
+    private void singlePivotPartition(int[] a, int first, int last, Context ctx) {
+        swap(a, first, pivotIndex(a, first, last, ctx.rnd));
+        int j = hoarePartition(a, first, last);
+        ctx.set(j, j + 1, j, j + 1);
+    }
+
+    /**
+     * Returns the index of the pivot for a[first..last].
+     */
+    private int pivotIndex(int[] a, int first, int last, SplittableRandom rnd) {
+        switch (strategy) {
+            case RANDOM:
+                return randomIndex(rnd, first, last);
+            case NINTHER:
+                if (last - first + 1 >= NINTHER_THRESHOLD)
+                    return ninther(a, first, last);
+                return randomMedianOf3(a, first, last, rnd);
+            default:
+                return randomMedianOf3(a, first, last, rnd);
+        }
+    }
+
+    /**
+     * Returns the index of the median of three random elements of
+     * a[first..last].
+     */
+    private static int randomMedianOf3(int[] a, int first, int last, SplittableRandom rnd) {
+        return medianOf3(a, randomIndex(rnd, first, last),
+                         randomIndex(rnd, first, last),
+                         randomIndex(rnd, first, last));
+    }
+
+    private static int randomIndex(SplittableRandom rnd, int first, int last) {
+        return rnd.nextInt(last-first + 1) + first;
+    }
+
+    /**
+     * Returns the one of i, j and k whose element is the median.
+     */
+    private static int medianOf3(int[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            if (a[j] < a[k])
+                return j;
+            return a[i] < a[k] ? k : i;
+        }
+        if (a[i] < a[k])
+            return i;
+        return a[j] < a[k] ? k : j;
+    }
+
+    /**
+     * Returns the index of Tukey's ninther of a[first..last].
+     */
+    private static int ninther(int[] a, int first, int last) {
+        int step = (last - first) / 8;
+        int mid = (first + last) >>> 1;
+        return medianOf3(a,
+                medianOf3(a, first, first + step, first + 2 * step),
+                medianOf3(a, mid - step, mid, mid + step),
+                medianOf3(a, last - 2 * step, last - step, last));
+    }
+
+    /**
+     * Hoare partition of a[first..last] around the pivot a[first].
+     */
+    private static int hoarePartition(int[] a, int first, int last) {
+        int pivot = a[first];
 
         int i = first - 1;
         int j = last + 1;
@@ -73,5 +709,200 @@ public class QuickSort implements IntSorter {
             }
         }
     }
-}
 
+    /**
+     * BlockQuicksort partition of a[first..last]. Returns j as partition.
+     */
+    private int blockPartition(int[] a, int first, int last, Context ctx) {
+        swap(a, last, medianOf3(a, randomIndex(ctx.rnd, first, last),
+                                randomIndex(ctx.rnd, first, last),
+                                randomIndex(ctx.rnd, first, last)));
+        int pivot = a[last];
+        int[] offsetsL = ctx.offsetsL();
+        int[] offsetsR = ctx.offsetsR();
+
+        // a[first..l-1] <= pivot and a[r+1..last-1] >= pivot.
+        int l = first;
+        int r = last - 1;
+        int numL = 0, numR = 0, startL = 0, startR = 0;
+
+        while (r - l + 1 > 2 * BLOCK_SIZE) {
+            if (numL == 0) {
+                startL = 0;
+                for (int i = 0; i < BLOCK_SIZE; i++) {
+                    offsetsL[numL] = i;
+                    numL += (a[l + i] >= pivot) ? 1 : 0;
+                }
+            }
+            if (numR == 0) {
+                startR = 0;
+                for (int i = 0; i < BLOCK_SIZE; i++) {
+                    offsetsR[numR] = i;
+                    numR += (pivot >= a[r - i]) ? 1 : 0;
+                }
+            }
+
+            int num = Math.min(numL, numR);
+            for (int k = 0; k < num; k++)
+                swap(a, l + offsetsL[startL + k], r - offsetsR[startR + k]);
+
+            numL -= num;
+            numR -= num;
+            startL += num;
+            startR += num;
+            if (numL == 0)
+                l += BLOCK_SIZE;
+            if (numR == 0)
+                r -= BLOCK_SIZE;
+        }
+
+        // Finish the rest, including any half-processed block, by scanning.
+        int p = l;
+        for (int k = l; k <= r; k++) {
+            if (a[k] < pivot)
+                swap(a, p++, k);
+        }
+        swap(a, p, last);
+        return p < last ? p : p - 1;
+    }
+
+    /**
+     * Three-way partition of a[first..last]. Afterwards a[first..lt-1] <
+     * a[lt..gt], which are all equal to the pivot, < a[gt+1..last]. Returns
+     * lt and gt packed with pack.
+     */
+    private static long threeWayPartition(int[] a, int first, int last, SplittableRandom rnd) {
+        swap(a, first, medianOf3(a, randomIndex(rnd, first, last),
+                                 randomIndex(rnd, first, last),
+                                 randomIndex(rnd, first, last)));
+        return threeWay(a, first, last);
+    }
+
+    /**
+     * Three-way partition of a[first..last] around the pivot a[first].
+     */
+    private static long threeWay(int[] a, int first, int last) {
+        int pivot = a[first];
+        int lt = first;
+        int gt = last;
+        int i = first + 1;
+
+        while (i <= gt) {
+            if (a[i] < pivot) {
+                swap(a, lt++, i++);
+            } else if (a[i] > pivot) {
+                swap(a, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        return pack(lt, gt);
+    }
+
+    /**
+     * Dual-pivot partition of a[first..last]. Afterwards a[lt] and a[gt]
+     * are the pivots, a[first..lt-1] < a[lt], a[lt+1..gt-1] lies between
+     * the pivots and a[gt+1..last] > a[gt]. Returns lt and gt packed with
+     * pack.
+     */
+    private long dualPivotPartition(int[] a, int first, int last) {
+        // The pivots are the second and fourth of five evenly spaced elements.
+        int step = (last - first) / 6;
+        int mid = (first + last) >>> 1;
+        int e1 = mid - 2 * step, e2 = mid - step, e3 = mid, e4 = mid + step, e5 = mid + 2 * step;
+        sort5(a, e1, e2, e3, e4, e5);
+        swap(a, first, e2);
+        swap(a, last, e4);
+
+        int p = a[first];
+        int q = a[last];
+        int lt = first + 1;
+        int gt = last - 1;
+        int i = lt;
+
+        while (i <= gt) {
+            if (a[i] < p) {
+                swap(a, i, lt++);
+            } else if (a[i] > q) {
+                while (a[gt] > q && i < gt)
+                    gt--;
+                swap(a, i, gt--);
+                if (a[i] < p)
+                    swap(a, i, lt++);
+            }
+            i++;
+        }
+        lt--;
+        gt++;
+        swap(a, first, lt);
+        swap(a, last, gt);
+        return pack(lt, gt);
+    }
+
+    /**
+     * Returns the part of a[lt+1..gt-1], after a dual-pivot partition of
+     * a[first..last], that still needs sorting, packed with pack. If the
+     * pivots are equal, nothing does. If the middle part is large, the
+     * elements equal to either pivot are moved to its ends and left out,
+     * so that inputs with few distinct values do not degrade.
+     */
+    private static long middle(int[] a, int first, int last, int lt, int gt) {
+        int p = a[lt];
+        int q = a[gt];
+        if (p == q)
+            return pack(lt + 1, lt);
+        int lo = lt + 1;
+        int hi = gt - 1;
+        if (7 * (hi - lo + 1) <= 4 * (last - first + 1))
+            return pack(lo, hi);
+
+        while (lo <= hi && a[lo] == p)
+            lo++;
+        while (lo <= hi && a[hi] == q)
+            hi--;
+        for (int k = lo; k <= hi; k++) {
+            if (a[k] == p) {
+                swap(a, k, lo++);
+            } else if (a[k] == q) {
+                while (k < hi && a[hi] == q)
+                    hi--;
+                swap(a, k, hi--);
+                if (a[k] == p)
+                    swap(a, k, lo++);
+            }
+        }
+        return pack(lo, hi);
+    }
+
+    /**
+     * Sorts the elements at the five indices with a sorting network.
+     */
+    private static void sort5(int[] a, int i1, int i2, int i3, int i4, int i5) {
+        sort2(a, i1, i2); sort2(a, i4, i5); sort2(a, i3, i5);
+        sort2(a, i3, i4); sort2(a, i1, i4); sort2(a, i1, i3);
+        sort2(a, i2, i5); sort2(a, i2, i4); sort2(a, i2, i3);
+    }
+
+    private static void sort2(int[] a, int i, int j) {
+        if (a[i] > a[j])
+            swap(a, i, j);
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    private static long pack(int lo, int hi) {
+        return ((long) lo << 32) | (hi & 0xFFFFFFFFL);
+    }
+
+    private static int lower(long bounds) {
+        return (int) (bounds >> 32);
+    }
+
+    private static int upper(long bounds) {
+        return (int) bounds;
+    }
+}
@@ -0,0 +1,210 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * LSD radix sort implementation.
+ * The ints are sorted one byte at a time, from the least significant byte
+ * to the most significant, with a counting sort for each byte. The sign
+ * bit is flipped when the top byte is read, so negative numbers come
+ * first. A pass is skipped when all keys share the same byte, so arrays
+ * whose values fit in fewer bytes take fewer passes.
+ *
+ * The scratch buffer is kept between calls, so a RadixSort must not be
+ * used by several threads at once.
+ * @author agent
+ * @version Oct 2026
+ */
+public class RadixSort implements IntSorter {
+    private static final int BITS = 8;
+    private static final int RADIX = 1 << BITS;
+    private static final int MASK = RADIX - 1;
+    private static final int PASSES = 32 / BITS;
+    private static final int SIGN = 0x80000000;
+
+    /**
+     * Arrays shorter than this are sorted with QuickSort.
+     */
+    private static final int SMALL = 256;
+
+    /**
+     * Arrays shorter than this are sorted sequentially even if a pool is
+     * given.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final QuickSort small = new QuickSort();
+    private int[] buffer = new int[0];
+
+    /**
+     * Creates a sequential radix sorter.
+     */
+    public RadixSort() {
+        this.pool = null;
+    }
+
+    /**
+     * Creates a radix sorter that computes the histograms and scatters
+     * the keys of large arrays in parallel in the given pool.
+     */
+    public RadixSort(ForkJoinPool pool) {
+        if (pool == null)
+            throw new IllegalArgumentException("pool=null");
+
+        this.pool = pool;
+    }
+
+    @Override
+    public void sort(int[] v) {
+        int n = v.length;
+        if(n < SMALL) {
+            small.sort(v);
+            return;
+        }
+
+        if (buffer.length < n)
+            buffer = new int[n];
+
+        int[] result;
+        if (pool != null && n >= PARALLEL_THRESHOLD) {
+            result = parallelSort(v, buffer, n);
+        } else {
+            result = sequentialSort(v, buffer, n);
+        }
+        if (result != v)
+            System.arraycopy(result, 0, v, 0, n);
+    }
+
+    private static int digit(int x, int shift) {
+        return ((x ^ SIGN) >>> shift) & MASK;
+    }
+
+    /**
+     * Sorts src[0..n-1] using dst as scratch space and returns the array
+     * that holds the result.
+     */
+    private static int[] sequentialSort(int[] src, int[] dst, int n) {
+        // All histograms are counted in a single pass.
+        int[][] count = new int[PASSES][RADIX];
+        for (int i = 0; i < n; i++) {
+            int x = src[i] ^ SIGN;
+            count[0][x & MASK]++;
+            count[1][(x >>> 8) & MASK]++;
+            count[2][(x >>> 16) & MASK]++;
+            count[3][x >>> 24]++;
+        }
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            int[] c = count[pass];
+            if (c[digit(src[0], pass * BITS)] == n)
+                continue;
+
+            int sum = 0;
+            for (int d = 0; d < RADIX; d++) {
+                int k = c[d];
+                c[d] = sum;
+                sum += k;
+            }
+
+            int shift = pass * BITS;
+            for (int i = 0; i < n; i++) {
+                int x = src[i];
+                dst[c[digit(x, shift)]++] = x;
+            }
+
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        return src;
+    }
+
+    /**
+     * Parallel version of sequentialSort. The array is split in one chunk
+     * per worker. For each pass every chunk counts its digits, the counts
+     * give each chunk its own range of output slots per digit, and then
+     * every chunk scatters its keys, which keeps the sort stable.
+     */
+    private int[] parallelSort(int[] src, int[] dst, int n) {
+        final int chunks = Math.max(1, Math.min(pool.getParallelism(), n / SMALL));
+        final int[][] count = new int[chunks][RADIX];
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            final int shift = pass * BITS;
+            final int[] from = src;
+            final int[] to = dst;
+
+            forEachChunk(chunks, c -> {
+                int[] h = count[c];
+                Arrays.fill(h, 0);
+                for (int i = chunkStart(c, chunks, n), end = chunkStart(c + 1, chunks, n); i < end; i++)
+                    h[digit(from[i], shift)]++;
+            });
+
+            int total = 0;
+            int d0 = digit(from[0], shift);
+            for (int c = 0; c < chunks; c++)
+                total += count[c][d0];
+            if (total == n)
+                continue;
+
+            // count[c][d] becomes the first output slot of digit d in chunk c.
+            int sum = 0;
+            for (int d = 0; d < RADIX; d++) {
+                for (int c = 0; c < chunks; c++) {
+                    int k = count[c][d];
+                    count[c][d] = sum;
+                    sum += k;
+                }
+            }
+
+            forEachChunk(chunks, c -> {
+                int[] slot = count[c];
+                for (int i = chunkStart(c, chunks, n), end = chunkStart(c + 1, chunks, n); i < end; i++) {
+                    int x = from[i];
+                    to[slot[digit(x, shift)]++] = x;
+                }
+            });
+
+            src = to;
+            dst = from;
+        }
+        return src;
+    }
+
+    private static int chunkStart(int c, int chunks, int n) {
+        return (int) ((long) n * c / chunks);
+    }
+
+    /**
+     * Runs body for every chunk index in the pool and waits for all.
+     */
+    private void forEachChunk(int chunks, IntConsumer body) {
+        pool.invoke(new ChunkTask(body, 0, chunks));
+    }
+
+    @SuppressWarnings("serial")
+    private static class ChunkTask extends RecursiveAction {
+        private final IntConsumer body;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(IntConsumer body, int lo, int hi) {
+            this.body = body;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                body.accept(lo);
+            } else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ChunkTask(body, lo, mid), new ChunkTask(body, mid, hi));
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.Arrays;
+
+/**
+ * The k largest of a stream of ints.
+ * The elements are kept in a binary min-heap of at most k elements, so
+ * an element that is not among the k largest seen so far is rejected
+ * after a single comparison with the root. Adding n elements takes
+ * O(n log k) time in the worst case and O(n + k log k log(n/k)) expected
+ * time for a random order, using O(k) memory.
+ * @author agent
+ * @version Oct 2026
+ */
+public class TopK {
+    private final int[] heap;
+    private int size;
+
+    /**
+     * Creates an empty TopK that keeps the k largest elements.
+     *
+     * @throws IllegalArgumentException if k < 0
+     */
+    public TopK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("k=" + k);
+
+        heap = new int[k];
+    }
+
+    /**
+     * Adds x to the stream.
+     */
+    public void add(int x) {
+        if (size < heap.length) {
+            heap[size] = x;
+            siftUp(size++);
+        } else if (size > 0 && x > heap[0]) {
+            heap[0] = x;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Adds the elements of a to the stream.
+     */
+    public void addAll(int[] a) {
+        for (int x : a)
+            add(x);
+    }
+
+    /**
+     * Returns the number of elements kept, min(k, number of elements
+     * added).
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the smallest element kept: the k-th largest element added
+     * once k elements have been added.
+     *
+     * @throws IllegalStateException if no element is kept
+     */
+    public int min() {
+        if (size == 0)
+            throw new IllegalStateException("empty");
+
+        return heap[0];
+    }
+
+    /**
+     * Returns the elements kept in descending order.
+     */
+    public int[] toArray() {
+        int[] a = Arrays.copyOf(heap, size);
+        Arrays.sort(a);
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+        return a;
+    }
+
+    private void siftUp(int i) {
+        int x = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= x)
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = x;
+    }
+
+    private void siftDown(int i) {
+        int x = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && heap[child + 1] < heap[child])
+                child++;
+            if (heap[child] >= x)
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = x;
+    }
+}
@@ -0,0 +1,53 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Baseline for SortBenchmark: the copy of the input into the work array
+ * that precedes every sort. It has no sorter parameter, so it is measured
+ * once per size and distribution.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms10g", "-Xmx10g"})
+public class CopyBenchmark {
+    @Param({"10", "1000", "100000", "10000000", "1000000000"})
+    public int size;
+
+    @Param
+    public SortBenchmark.Distribution distribution;
+
+    private int[] input;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = SortBenchmark.input(distribution, size);
+        work = new int[size];
+    }
+
+    @Benchmark
+    public int[] copy() {
+        System.arraycopy(input, 0, work, 0, size);
+        return work;
+    }
+}
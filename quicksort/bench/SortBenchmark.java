@@ -0,0 +1,185 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the IntSorters against Arrays.sort and
+ * Arrays.parallelSort, for every combination of sorter, size and input
+ * distribution.
+ *
+ * Every invocation copies the input into a work array and sorts it, so
+ * CopyBenchmark gives the time to subtract. Run with -prof gc to get the
+ * allocation rate, for example
+ *
+ *   java -jar target/benchmarks.jar SortBenchmark -prof gc -p size=1000000
+ *
+ * JMH does not accept benchmarks in the default package, where the
+ * sorters are, so the sorters are created by name and called through a
+ * MethodHandle. The largest size needs a heap of about 12 GB: 4 GB each
+ * for the input and work arrays, and 4 GB for the scratch array of
+ * RadixSort or Arrays.parallelSort.
+ *
+ * @author agent
+ * @version Oct 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms14g", "-Xmx14g"})
+public class SortBenchmark {
+    /**
+     * Input distributions.
+     */
+    public enum Distribution {
+        RANDOM {
+            @Override
+            int value(int i, int n, SplittableRandom rnd) {
+                return rnd.nextInt();
+            }
+        },
+        SORTED {
+            @Override
+            int value(int i, int n, SplittableRandom rnd) {
+                return i;
+            }
+        },
+        REVERSED {
+            @Override
+            int value(int i, int n, SplittableRandom rnd) {
+                return n - i;
+            }
+        },
+        /**
+         * Ascending to the middle, then descending.
+         */
+        ORGAN_PIPE {
+            @Override
+            int value(int i, int n, SplittableRandom rnd) {
+                return i < n / 2 ? i : n - i;
+            }
+        },
+        ALL_EQUAL {
+            @Override
+            int value(int i, int n, SplittableRandom rnd) {
+                return 42;
+            }
+        },
+        /**
+         * Random values from a set of 16.
+         */
+        FEW_UNIQUE {
+            @Override
+            int value(int i, int n, SplittableRandom rnd) {
+                return rnd.nextInt(16);
+            }
+        },
+        /**
+         * Ascending runs of length sqrt(n).
+         */
+        SAWTOOTH {
+            @Override
+            int value(int i, int n, SplittableRandom rnd) {
+                return i % Math.max(1, (int) Math.sqrt(n));
+            }
+        };
+
+        abstract int value(int i, int n, SplittableRandom rnd);
+    }
+
+    /**
+     * The sorter: the name of an IntSorter class with a no-argument
+     * constructor, QuickSort:STRATEGY for a QuickSort with the given
+     * partition strategy, or one of the JDK sorts.
+     */
+    @Param({"QuickSort", "QuickSort:RANDOM", "QuickSort:NINTHER", "QuickSort:DUAL_PIVOT",
+            "QuickSort:BLOCK", "QuickSort:THREE_WAY",
+            "ParallelQuickSort", "RadixSort", "AdaptiveSort",
+            "Arrays.sort", "Arrays.parallelSort"})
+    public String sorter;
+
+    @Param({"10", "1000", "100000", "10000000", "1000000000"})
+    public int size;
+
+    @Param
+    public Distribution distribution;
+
+    private int[] input;
+    private int[] work;
+    private MethodHandle sort;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        input = input(distribution, size);
+        work = new int[size];
+        sort = sortHandle(sorter);
+    }
+
+    /**
+     * Returns an array of the given size drawn from the distribution,
+     * the same for every call with the same arguments.
+     */
+    static int[] input(Distribution distribution, int size) {
+        SplittableRandom rnd = new SplittableRandom(42);
+        int[] a = new int[size];
+        for (int i = 0; i < size; i++)
+            a[i] = distribution.value(i, size, rnd);
+        return a;
+    }
+
+    /**
+     * Returns a handle that takes an int[] and sorts it with the named
+     * sorter.
+     */
+    private static MethodHandle sortHandle(String name) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodType type = MethodType.methodType(void.class, int[].class);
+        switch (name) {
+            case "Arrays.sort":
+                return lookup.findStatic(Arrays.class, "sort", type);
+            case "Arrays.parallelSort":
+                return lookup.findStatic(Arrays.class, "parallelSort", type);
+            default:
+                break;
+        }
+
+        Object instance;
+        int colon = name.indexOf(':');
+        if (colon < 0) {
+            instance = Class.forName(name).getConstructor().newInstance();
+        } else {
+            Class<?> quickSort = Class.forName(name.substring(0, colon));
+            Class<?> partition = Class.forName(quickSort.getName() + "$Partition");
+            Object strategy = partition.getMethod("valueOf", String.class)
+                    .invoke(null, name.substring(colon + 1));
+            instance = quickSort.getConstructor(partition).newInstance(strategy);
+        }
+        return lookup.findVirtual(Class.forName("IntSorter"), "sort", type).bindTo(instance);
+    }
+
+    @Benchmark
+    public int[] sort() throws Throwable {
+        System.arraycopy(input, 0, work, 0, size);
+        sort.invokeExact(work);
+        return work;
+    }
+}
@@ -0,0 +1,255 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread-safe hash table of strings.
+ *
+ * The strings are spread over a fixed number of segments by the high
+ * bits of their hash codes. Each segment is an open-addressing table
+ * with linear probing, like StringHash, and has its own lock for
+ * writers. Readers never lock: contains sees every add and remove that
+ * has completed. An add or remove of a string that is already present
+ * or absent is answered without locking, so a set that mostly sees
+ * duplicates scales with the number of threads.
+ *
+ * add returns true exactly once per distinct string, even if several
+ * threads add it at the same time. A segment that fills up is replaced
+ * by a rehashed copy while only its own lock is held, so a resize
+ * never blocks the other segments, and readers of the old copy still
+ * see a consistent table.
+ *
+ * @author agent
+ * @version 2026-10-17
+ */
+public class ConcurrentStringHash implements StringDictionary {
+    /**
+     * Marks a slot whose string has been removed. Probes continue past
+     * it; it is reused by a later add and dropped by a rehash.
+     */
+    private static final String DELETED = new String("<deleted>");
+
+    private static final int MIN_TABLE_SIZE = 8;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    /**
+     * An open-addressing table. Slots are written by the thread holding
+     * the segment lock and read by any thread. A hash code is written
+     * before its string, so a reader that finds a string also sees its
+     * hash code.
+     */
+    private static final class Table {
+        final AtomicReferenceArray<String> strings;
+        final AtomicIntegerArray hashes;
+        final int mask;
+        int used;   // slots that are not null; accessed under the lock only
+
+        Table(int size) {
+            strings = new AtomicReferenceArray<>(size);
+            hashes = new AtomicIntegerArray(size);
+            mask = size - 1;
+        }
+
+        /**
+         * Returns the slot that holds s, or -1 if s is not in the table.
+         */
+        int find(String s, int h) {
+            int i = h & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                String t = strings.get(i);
+                if (t == null)
+                    return -1;
+                if (t != DELETED && hashes.get(i) == h && t.equals(s))
+                    return i;
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * A part of the dictionary with its own lock and table.
+     */
+    private static final class Segment {
+        volatile Table table;
+        volatile int size;
+
+        Segment(int tableSize) {
+            table = new Table(tableSize);
+        }
+
+        synchronized boolean add(String s, int h) {
+            Table t = table;
+            if (t.find(s, h) >= 0)
+                return false;
+
+            // Reuse the first deleted slot on the probe sequence if any.
+            int i = h & t.mask;
+            String k;
+            while ((k = t.strings.get(i)) != null && k != DELETED)
+                i = (i + 1) & t.mask;
+            if (k == null)
+                t.used++;
+            t.hashes.set(i, h);
+            t.strings.set(i, s);
+            size++;
+
+            if (2 * t.used > t.mask + 1)
+                table = rehash(t, size);
+            return true;
+        }
+
+        synchronized boolean remove(String s, int h) {
+            Table t = table;
+            int i = t.find(s, h);
+            if (i < 0)
+                return false;
+
+            t.strings.set(i, DELETED);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Returns a new table holding the strings of t, sized so that they
+     * fill at most a quarter of it. Deleted slots are dropped.
+     */
+    private static Table rehash(Table t, int size) {
+        Table copy = new Table(tableSize(size));
+        for (int j = 0; j <= t.mask; j++) {
+            String s = t.strings.get(j);
+            if (s != null && s != DELETED) {
+                int h = t.hashes.get(j);
+                int i = h & copy.mask;
+                while (copy.strings.get(i) != null)
+                    i = (i + 1) & copy.mask;
+                copy.hashes.lazySet(i, h);
+                copy.strings.lazySet(i, s);
+                copy.used++;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the smallest power of two table size that holds n strings
+     * at a load of at most a quarter.
+     */
+    private static int tableSize(int n) {
+        int size = MIN_TABLE_SIZE;
+        while (size < 4L * n) {
+            if (size == MAX_TABLE_SIZE)
+                throw new IllegalStateException("segment is full");
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int hash(String s) {
+        int h = s.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Creates a dictionary that can hold about the given number of
+     * strings before its segments grow. The number of segments is
+     * chosen from the number of processors.
+     *
+     * @throws IllegalArgumentException if capacity <= 0.
+     */
+    public ConcurrentStringHash(int capacity) {
+        this(capacity, 16 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a dictionary that can hold about the given number of
+     * strings before its segments grow, with at least the given number
+     * of segments. More segments let more writers work in parallel.
+     *
+     * @throws IllegalArgumentException if capacity <= 0 or
+     *         segments <= 0.
+     */
+    public ConcurrentStringHash(int capacity, int segments) {
+        if (capacity <= 0 || segments <= 0)
+            throw new IllegalArgumentException("capacity=" + capacity + ", segments=" + segments);
+
+        int n = 1;
+        while (n < Math.min(segments, MAX_SEGMENTS))
+            n <<= 1;
+        this.segments = new Segment[n];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+        int perSegment = (int) Math.min((capacity + n - 1L) / n, 1 << 27);
+        for (int i = 0; i < n; i++)
+            this.segments[i] = new Segment(tableSize(perSegment) / 2);
+    }
+
+    /**
+     * Returns the segment of hash code h, chosen by its high bits. The
+     * low bits choose the slot within the segment.
+     */
+    private Segment segmentFor(int h) {
+        // A shift of 32 is a shift of 0 in Java, so one segment needs care.
+        return segments.length == 1 ? segments[0] : segments[h >>> segmentShift];
+    }
+
+    /**
+     * Returns the number of strings in this dictionary. The value is
+     * exact only when no strings are being added or removed.
+     */
+    public int size() {
+        long size = 0;
+        for (Segment seg : segments)
+            size += seg.size;
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds the given string to this dictionary.
+     * Returns <code>true</code> if the dictionary
+     * did not already contain the given string.
+     * If several threads add the same new string
+     * at once, exactly one of them gets true.
+     *
+     * Complexity: O(1) expected time.
+     */
+    @Override
+    public boolean add(String s) {
+        int h = hash(s);
+        Segment seg = segmentFor(h);
+        if (seg.table.find(s, h) >= 0)
+            return false;
+        return seg.add(s, h);
+    }
+
+    /**
+     * Removes the given string from this dictionary
+     * if it is present. Returns <code>true</code> if
+     * the dictionay contained the specified element.
+     *
+     * Complexity: O(1) expected time.
+     */
+    @Override
+    public boolean remove(String s) {
+        int h = hash(s);
+        Segment seg = segmentFor(h);
+        if (seg.table.find(s, h) < 0)
+            return false;
+        return seg.remove(s, h);
+    }
+
+    /**
+     * Returns <code>true</code> if the string is
+     * in this dictionary. Never blocks.
+     *
+     * Complexity: O(1) expected time.
+     */
+    @Override
+    public boolean contains(String s) {
+        int h = hash(s);
+        return segmentFor(h).table.find(s, h) >= 0;
+    }
+}
@@ -0,0 +1,558 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * A dictionary of strings served from a memory-mapped snapshot file,
+ * with an append-only log of the changes made since the snapshot.
+ *
+ * The snapshot is a hash table laid out for lookup in place, so open
+ * maps it and is done: there is no rebuild step, and pages are read
+ * from disk the first time they are probed. All numbers are
+ * little-endian. The file is:
+ *
+ * <pre>
+ * header  int MAGIC, int VERSION, long count, long slots, long dataBytes
+ * refs    long[slots]  1 + data offset of the string, or 0 if empty
+ * hashes  long[slots]  64-bit hash code of the string in the slot
+ * data    for each string: int length, length bytes of UTF-8
+ * </pre>
+ *
+ * The table uses linear probing with the same hash function as
+ * OffHeapStringDictionary, and no string in the data crosses a
+ * 2^30-byte boundary, so the file can be mapped in 1 GB chunks.
+ *
+ * add and remove append a record to the log file, which is the
+ * snapshot file name with ".log" appended, and keep the change in a
+ * small StringHash overlay. open replays the log, so changes survive
+ * a restart without rewriting the snapshot; compact folds them into a
+ * new snapshot and empties the log. A record is in the operating
+ * system's hands when add or remove returns; call sync to force it to
+ * the disk. A record is a byte '+' or '-', the int length of the
+ * string, its UTF-8 bytes and the CRC-32 of all of these, big-endian.
+ * Replay stops at the first record that is incomplete or fails its
+ * check, which is where a crash left the log, and cuts the log there;
+ * a tail of zeros or garbage from a crash after the file was extended
+ * is dropped the same way as a record cut short.
+ *
+ * Lookups may be made by several threads at once if there are no
+ * concurrent changes.
+ *
+ * @author agent
+ * @version 2026-10-17
+ */
+public class MappedStringDictionary implements StringDictionary, Iterable<String>, Closeable {
+    private static final int MAGIC = 0x43494453;   // "SDIC" in the file
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 32;
+    private static final double LOAD_FACTOR = 0.5;
+    private static final long EMPTY = 0;
+
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+
+    /**
+     * Longest string accepted, in UTF-8 bytes.
+     */
+    public static final int MAX_LENGTH = (int) CHUNK_SIZE - 4;
+
+    private static final byte ADD = '+';
+    private static final byte REMOVE = '-';
+    private static final int RECORD_OVERHEAD = 9;   // op, length and checksum
+
+    private final Path file;
+    private final long count;
+    private final long mask;
+    private final Region refs;
+    private final Region hashes;
+    private final Region data;
+
+    private final FileChannel log;
+    private final StringHash added = new StringHash(16);     // not in the snapshot
+    private final StringHash removed = new StringHash(16);   // in the snapshot
+
+    private MappedStringDictionary(Path file, long count, long slots, Region refs, Region hashes,
+                                   Region data, FileChannel log) {
+        this.file = file;
+        this.count = count;
+        this.mask = slots - 1;
+        this.refs = refs;
+        this.hashes = hashes;
+        this.data = data;
+        this.log = log;
+    }
+
+    /**
+     * Writes the distinct strings to a snapshot file, which is replaced
+     * if it exists. A log left by an earlier snapshot of the same name is
+     * deleted, since its records belong to the old contents. The strings
+     * are iterated twice. A StringHash or a MappedStringDictionary can be
+     * written directly, since both are Iterable.
+     *
+     * @return the number of distinct strings written
+     * @throws IllegalArgumentException if a string is longer than
+     *         MAX_LENGTH bytes in UTF-8.
+     * @throws IOException if the file cannot be written.
+     */
+    public static long write(Iterable<String> strings, Path file) throws IOException {
+        long n = 0;
+        long dataBytes = 0;
+        for (String s : strings) {
+            int len = utf8Length(s);
+            if (len > MAX_LENGTH)
+                throw new IllegalArgumentException("length=" + len);
+            dataBytes = place(dataBytes, len) + 4 + len;
+            n++;
+        }
+
+        long slots = 16;
+        while (slots * LOAD_FACTOR < n + 1)
+            slots <<= 1;
+        long refsAt = HEADER_BYTES;
+        long hashesAt = refsAt + 8 * slots;
+        long dataAt = hashesAt + 8 * slots;
+
+        long distinct = 0;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ch.write(ByteBuffer.allocate(1), dataAt + Math.max(dataBytes, 1) - 1);
+            Region refs = new Region(ch, FileChannel.MapMode.READ_WRITE, refsAt, 8 * slots);
+            Region hashes = new Region(ch, FileChannel.MapMode.READ_WRITE, hashesAt, 8 * slots);
+            Region data = new Region(ch, FileChannel.MapMode.READ_WRITE, dataAt, dataBytes);
+            MappedStringDictionary d = new MappedStringDictionary(file, 0, slots, refs, hashes, data, null);
+
+            long pos = 0;
+            for (String s : strings) {
+                ByteBuffer key = utf8(s);
+                long h = OffHeapStringDictionary.hash(key);
+                long slot = d.probe(key, h);
+                if (slot >= 0)
+                    continue;
+
+                int len = key.remaining();
+                pos = place(pos, len);
+                data.putInt(pos, len);
+                data.put(pos + 4, key);
+                slot = -slot - 1;
+                hashes.putLong(8 * slot, h);
+                refs.putLong(8 * slot, pos + 1);
+                pos += 4 + len;
+                distinct++;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(distinct).putLong(slots).putLong(pos);
+            header.flip();
+            refs.force();
+            hashes.force();
+            data.force();
+            ch.write(header, 0);
+            ch.force(true);
+        }
+        Files.deleteIfExists(logFile(file));
+        return distinct;
+    }
+
+    private static Path logFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".log");
+    }
+
+    /**
+     * Opens a snapshot file read-only and replays its log, which is
+     * created if it does not exist.
+     *
+     * @throws IOException if the file is not a snapshot or cannot be
+     *         read.
+     */
+    public static MappedStringDictionary open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && ch.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC)
+                throw new IOException("not a snapshot file: " + file);
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("unsupported snapshot version " + version + ": " + file);
+            long count = header.getLong();
+            long slots = header.getLong();
+            long dataBytes = header.getLong();
+            long dataAt = HEADER_BYTES + 16 * slots;
+            if (slots < 1 || Long.bitCount(slots) != 1 || count < 0 || dataBytes < 0
+                    || dataAt + dataBytes > ch.size())
+                throw new IOException("damaged snapshot file: " + file);
+
+            Region refs = new Region(ch, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, 8 * slots);
+            Region hashes = new Region(ch, FileChannel.MapMode.READ_ONLY, HEADER_BYTES + 8 * slots, 8 * slots);
+            Region data = new Region(ch, FileChannel.MapMode.READ_ONLY, dataAt, dataBytes);
+
+            FileChannel log = FileChannel.open(logFile(file), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            try {
+                MappedStringDictionary d = new MappedStringDictionary(file, count, slots, refs, hashes,
+                                                                      data, log);
+                d.replay();
+                return d;
+            } catch (IOException | RuntimeException e) {
+                log.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Applies the records of the log up to the first one that is
+     * incomplete or damaged, cuts the log there and leaves it positioned
+     * at its end. A record is applied only if it changes the contents,
+     * so a log replayed over a snapshot that already holds its changes,
+     * as after a crash in compact, gives the same contents.
+     */
+    private void replay() throws IOException {
+        long size = log.size();
+        log.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log)));
+        long end = 0;
+        try {
+            while (end < size) {
+                byte op = in.readByte();
+                int len = in.readInt();
+                if ((op != ADD && op != REMOVE) || len < 0 || len > MAX_LENGTH
+                        || len > size - end - RECORD_OVERHEAD)
+                    break;
+                byte[] record = new byte[5 + len];
+                ByteBuffer.wrap(record).put(op).putInt(len);
+                in.readFully(record, 5, len);
+                if (in.readInt() != checksum(record, record.length))
+                    break;
+                String s = new String(record, 5, len, StandardCharsets.UTF_8);
+                if (op == ADD) {
+                    if (!contains(s))
+                        applyAdd(s);
+                } else if (contains(s)) {
+                    applyRemove(s);
+                }
+                end += RECORD_OVERHEAD + len;
+            }
+        } catch (EOFException e) {
+            // The last record was cut short.
+        }
+        log.truncate(end);
+        log.position(end);
+    }
+
+    /**
+     * Returns the number of strings in this dictionary.
+     */
+    public long size() {
+        return count - removed.size() + added.size();
+    }
+
+    @Override
+    public boolean add(String s) {
+        if (contains(s))
+            return false;
+
+        append(ADD, s);
+        applyAdd(s);
+        return true;
+    }
+
+    @Override
+    public boolean remove(String s) {
+        if (!contains(s))
+            return false;
+
+        append(REMOVE, s);
+        applyRemove(s);
+        return true;
+    }
+
+    @Override
+    public boolean contains(String s) {
+        if (added.contains(s))
+            return true;
+        if (removed.contains(s))
+            return false;
+        return inSnapshot(utf8(s));
+    }
+
+    /**
+     * Returns <code>true</code> if the string whose UTF-8
+     * bytes are the remaining bytes of key is in the
+     * snapshot, whatever has been logged since.
+     */
+    public boolean inSnapshot(ByteBuffer key) {
+        return probe(key, OffHeapStringDictionary.hash(key)) >= 0;
+    }
+
+    /**
+     * Returns an iterator over the strings in this dictionary: the
+     * strings of the snapshot that have not been removed, then the
+     * strings added since. The dictionary must not be changed during
+     * the iteration.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        final Iterator<String> overlay = added.iterator();
+        return new Iterator<String>() {
+            private long slot = -1;
+            private String next = advance();
+
+            private String advance() {
+                while (++slot <= mask) {
+                    long ref = refs.getLong(8 * slot);
+                    if (ref != EMPTY) {
+                        String s = string(ref - 1);
+                        if (!removed.contains(s))
+                            return s;
+                    }
+                }
+                return overlay.hasNext() ? overlay.next() : null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                String s = next;
+                next = advance();
+                return s;
+            }
+        };
+    }
+
+    /**
+     * Folds the log into the snapshot and returns the dictionary opened
+     * on the new snapshot. The contents are written to a temporary file
+     * next to the snapshot file, which is then closed, replaced by the
+     * temporary file and given an empty log. This dictionary is closed
+     * and must not be used afterwards.
+     *
+     * A crash leaves either the old snapshot and its log, or the new
+     * snapshot, possibly with the old log, which replays to the same
+     * contents. The snapshot file is replaced while it is mapped, which
+     * fails on systems that do not allow it.
+     *
+     * @throws IOException if a file cannot be written or replaced.
+     */
+    public MappedStringDictionary compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        write(this, tmp);
+        close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(logFile(file));
+        return open(file);
+    }
+
+    /**
+     * Forces the log to the disk.
+     *
+     * @throws IOException if the log cannot be written.
+     */
+    public void sync() throws IOException {
+        log.force(false);
+    }
+
+    /**
+     * Closes the log. The mapped snapshot is released when this
+     * object is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    private void applyAdd(String s) {
+        if (!removed.remove(s))
+            added.add(s);
+    }
+
+    private void applyRemove(String s) {
+        if (!added.remove(s))
+            removed.add(s);
+    }
+
+    private void append(byte op, String s) {
+        ByteBuffer key = utf8(s);
+        if (key.remaining() > MAX_LENGTH)
+            throw new IllegalArgumentException("length=" + key.remaining());
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + key.remaining());
+        record.put(op).putInt(key.remaining()).put(key);
+        record.putInt(checksum(record.array(), record.position()));
+        record.flip();
+        try {
+            while (record.hasRemaining())
+                log.write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the CRC-32 of record[0..len-1].
+     */
+    private static int checksum(byte[] record, int len) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, len);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Returns the slot that holds key if it is present,
+     * otherwise -(slot + 1) where slot is the empty slot
+     * that ends its probe sequence.
+     */
+    private long probe(ByteBuffer key, long h) {
+        for (long i = OffHeapStringDictionary.home(h, mask); ; i = (i + 1) & mask) {
+            long ref = refs.getLong(8 * i);
+            if (ref == EMPTY)
+                return -i - 1;
+            if (hashes.getLong(8 * i) == h && equals(ref - 1, key))
+                return i;
+        }
+    }
+
+    private boolean equals(long pos, ByteBuffer key) {
+        int len = key.remaining();
+        if (data.getInt(pos) != len)
+            return false;
+
+        ByteBuffer chunk = data.chunk(pos + 4);
+        int at = data.offset(pos + 4);
+        int k = key.position();
+        for (int i = 0; i < len; i++) {
+            if (chunk.get(at + i) != key.get(k + i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the string whose length is at data offset pos.
+     */
+    private String string(long pos) {
+        int len = data.getInt(pos);
+        if (len == 0)
+            return "";
+        ByteBuffer src = data.chunk(pos + 4).duplicate();
+        src.position(data.offset(pos + 4));
+        byte[] bytes = new byte[len];
+        src.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the data offset at or after pos where a string of the
+     * given length goes: pos, unless the string would cross a chunk
+     * boundary.
+     */
+    private static long place(long pos, int len) {
+        long room = CHUNK_SIZE - (pos & (CHUNK_SIZE - 1));
+        return room >= 4 + len ? pos : pos + room;
+    }
+
+    private static ByteBuffer utf8(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int utf8Length(String s) {
+        int len = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                len += 1;
+            } else if (c < 0x800) {
+                len += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                len += 4;
+                i++;
+            } else {
+                len += 3;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * A section of a file mapped in chunks of CHUNK_SIZE bytes, so that
+     * it may be larger than 2 GB. Values are little-endian and must not
+     * cross a chunk boundary.
+     */
+    private static final class Region {
+        private final MappedByteBuffer[] chunks;
+
+        Region(FileChannel ch, FileChannel.MapMode mode, long position, long size) throws IOException {
+            chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for (int c = 0; c < chunks.length; c++) {
+                long start = (long) c << CHUNK_SHIFT;
+                chunks[c] = ch.map(mode, position + start, Math.min(CHUNK_SIZE, size - start));
+                chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        ByteBuffer chunk(long pos) {
+            return chunks[(int) (pos >>> CHUNK_SHIFT)];
+        }
+
+        int offset(long pos) {
+            return (int) (pos & (CHUNK_SIZE - 1));
+        }
+
+        long getLong(long pos) {
+            return chunk(pos).getLong(offset(pos));
+        }
+
+        void putLong(long pos, long x) {
+            chunk(pos).putLong(offset(pos), x);
+        }
+
+        int getInt(long pos) {
+            return chunk(pos).getInt(offset(pos));
+        }
+
+        void putInt(long pos, int x) {
+            chunk(pos).putInt(offset(pos), x);
+        }
+
+        /**
+         * Copies the remaining bytes of src to pos, without changing
+         * the position of src.
+         */
+        void put(long pos, ByteBuffer src) {
+            ByteBuffer dst = chunk(pos).duplicate();
+            dst.position(offset(pos));
+            dst.put(src.duplicate());
+        }
+
+        void force() {
+            for (MappedByteBuffer b : chunks)
+                b.force();
+        }
+    }
+}
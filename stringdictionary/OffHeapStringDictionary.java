@@ -0,0 +1,351 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hash table of strings stored outside the Java heap.
+ *
+ * Each string is stored once, as its length and its UTF-8 bytes, in an
+ * arena of direct ByteBuffers. The hash table is an open-addressing
+ * table with linear probing over two direct arrays: the arena reference
+ * of each string and its cached hash code. The heap only holds the
+ * buffer objects, so its footprint and the work of the garbage
+ * collector do not grow with the number of strings. The hash codes are
+ * 64 bits wide, so that tables with more than 2^32 slots can start a
+ * probe at any slot. Each slot of the table costs 16 bytes, and while
+ * strings are only added the table is between a quarter and half full,
+ * so it costs 32 to 64 bytes per string. The arena costs 4 bytes plus
+ * the length of the string. All of this is in direct buffers, so large
+ * dictionaries need a larger -XX:MaxDirectMemorySize.
+ *
+ * Strings can be looked up by their UTF-8 bytes, in an array or a
+ * ByteBuffer, without creating a String. The bytes are compared as they
+ * are: byte sequences that are not valid UTF-8 are allowed, and a String
+ * matches exactly the bytes that String.getBytes(UTF_8) gives.
+ *
+ * The space of removed strings in the arena is not reused. The table is
+ * not thread-safe.
+ *
+ * @author agent
+ * @version 2026-10-17
+ */
+public class OffHeapStringDictionary implements StringDictionary {
+    /**
+     * Index slot values that are not arena references.
+     */
+    private static final long EMPTY = 0;
+    private static final long DELETED = -1;
+
+    private static final double LOAD_FACTOR = 0.5;
+    private static final long MIN_CAPACITY = 16;
+    private static final int FIRST_ARENA_CHUNK = 1 << 16;
+    private static final int MAX_ARENA_CHUNK = 1 << 26;
+
+    /**
+     * Longest string accepted, in UTF-8 bytes.
+     */
+    public static final int MAX_LENGTH = MAX_ARENA_CHUNK - 4;
+
+    private DirectArray refs;     // arena reference per slot, or EMPTY/DELETED
+    private DirectArray hashes;   // 64-bit hash code per slot
+    private long mask;
+    private long size;
+    private long used;            // slots that are not EMPTY
+    private long maxUsed;         // rehash when used exceeds this
+
+    /**
+     * The arena. A reference to a string is 1 + (chunk << 32 | position),
+     * where position is the offset of its length in arena.get(chunk).
+     */
+    private final List<ByteBuffer> arena = new ArrayList<>();
+    private ByteBuffer current;
+    private long arenaBytes;
+
+    /**
+     * Creates a dictionary that can hold the given number of strings
+     * before its table grows.
+     *
+     * @throws IllegalArgumentException if capacity <= 0.
+     */
+    public OffHeapStringDictionary(long capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity=" + capacity);
+
+        allocate(tableSize(capacity));
+    }
+
+    private static long tableSize(long n) {
+        long slots = MIN_CAPACITY;
+        while (slots * LOAD_FACTOR < n + 1)
+            slots <<= 1;
+        return slots;
+    }
+
+    private void allocate(long slots) {
+        refs = new DirectArray(slots);
+        hashes = new DirectArray(slots);
+        mask = slots - 1;
+        used = 0;
+        maxUsed = (long) (slots * LOAD_FACTOR);
+    }
+
+    /**
+     * Returns the number of strings in this dictionary.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes used by the strings in the arena,
+     * including removed strings.
+     */
+    public long arenaBytes() {
+        return arenaBytes;
+    }
+
+    @Override
+    public boolean add(String s) {
+        return add(utf8(s));
+    }
+
+    @Override
+    public boolean remove(String s) {
+        return remove(utf8(s));
+    }
+
+    @Override
+    public boolean contains(String s) {
+        return contains(utf8(s));
+    }
+
+    /**
+     * Adds the string with the given UTF-8 bytes.
+     * Returns <code>true</code> if the dictionary
+     * did not already contain it.
+     *
+     * @throws IllegalArgumentException if the string is
+     *         longer than MAX_LENGTH bytes.
+     */
+    public boolean add(byte[] key) {
+        return add(ByteBuffer.wrap(key));
+    }
+
+    /**
+     * Adds the string whose UTF-8 bytes are the remaining
+     * bytes of key. The position of key is not changed.
+     * Returns <code>true</code> if the dictionary did not
+     * already contain it.
+     *
+     * @throws IllegalArgumentException if the string is
+     *         longer than MAX_LENGTH bytes.
+     */
+    public boolean add(ByteBuffer key) {
+        if (key.remaining() > MAX_LENGTH)
+            throw new IllegalArgumentException("length=" + key.remaining());
+
+        if (used >= maxUsed)
+            rehash(size + 1 > maxUsed / 2 ? 2 * (mask + 1) : mask + 1);
+
+        long h = hash(key);
+        long slot = probe(key, h);
+        if (slot >= 0)
+            return false;
+
+        slot = -slot - 1;
+        if (refs.getLong(slot) == EMPTY)
+            used++;
+        hashes.putLong(slot, h);
+        refs.putLong(slot, store(key));
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the string with the given UTF-8 bytes if
+     * it is present. Returns <code>true</code> if it was.
+     */
+    public boolean remove(byte[] key) {
+        return remove(ByteBuffer.wrap(key));
+    }
+
+    /**
+     * Removes the string whose UTF-8 bytes are the remaining
+     * bytes of key if it is present. The position of key is
+     * not changed. Returns <code>true</code> if it was present.
+     */
+    public boolean remove(ByteBuffer key) {
+        long slot = probe(key, hash(key));
+        if (slot < 0)
+            return false;
+
+        refs.putLong(slot, DELETED);
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if the string with the
+     * given UTF-8 bytes is in this dictionary.
+     */
+    public boolean contains(byte[] key) {
+        return contains(ByteBuffer.wrap(key));
+    }
+
+    /**
+     * Returns <code>true</code> if the string whose UTF-8
+     * bytes are the remaining bytes of key is in this
+     * dictionary. The position of key is not changed.
+     */
+    public boolean contains(ByteBuffer key) {
+        return probe(key, hash(key)) >= 0;
+    }
+
+    private static ByteBuffer utf8(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 64-bit FNV-1a over the remaining bytes of key, with the
+     * bits spread at the end so that the low bits used by home
+     * depend on all bytes. Also used by MappedStringDictionary.
+     */
+    static long hash(ByteBuffer key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = key.position(); i < key.limit(); i++)
+            h = (h ^ (key.get(i) & 0xFF)) * 0x100000001B3L;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Returns the first slot to probe for hash code h.
+     */
+    static long home(long h, long mask) {
+        return h & mask;
+    }
+
+    /**
+     * Returns the slot that holds key if it is present.
+     * Otherwise returns -(slot + 1), where slot is the first
+     * deleted or empty slot on its probe sequence.
+     */
+    private long probe(ByteBuffer key, long h) {
+        long free = -1;
+        for (long i = home(h, mask); ; i = (i + 1) & mask) {
+            long ref = refs.getLong(i);
+            if (ref == EMPTY)
+                return -(free >= 0 ? free : i) - 1;
+            if (ref == DELETED) {
+                if (free < 0)
+                    free = i;
+            } else if (hashes.getLong(i) == h && equals(ref, key)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the string at ref has the remaining
+     * bytes of key.
+     */
+    private boolean equals(long ref, ByteBuffer key) {
+        ByteBuffer chunk = arena.get((int) ((ref - 1) >>> 32));
+        int pos = (int) (ref - 1);
+        int len = key.remaining();
+        if (chunk.getInt(pos) != len)
+            return false;
+
+        pos += 4;
+        int k = key.position();
+        int i = 0;
+        if (key.order() == chunk.order()) {
+            for (; i + 8 <= len; i += 8) {
+                if (chunk.getLong(pos + i) != key.getLong(k + i))
+                    return false;
+            }
+        }
+        for (; i < len; i++) {
+            if (chunk.get(pos + i) != key.get(k + i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Appends the remaining bytes of key to the arena and
+     * returns their reference.
+     */
+    private long store(ByteBuffer key) {
+        int len = key.remaining();
+        if (current == null || current.remaining() < 4 + len) {
+            int size = current == null ? FIRST_ARENA_CHUNK
+                                       : Math.min(2 * current.capacity(), MAX_ARENA_CHUNK);
+            current = ByteBuffer.allocateDirect(Math.max(size, 4 + len)).order(ByteOrder.BIG_ENDIAN);
+            arena.add(current);
+        }
+
+        int pos = current.position();
+        current.putInt(len);
+        current.put(key.duplicate());
+        arenaBytes += 4 + len;
+        return 1 + ((long) (arena.size() - 1) << 32 | pos);
+    }
+
+    /**
+     * Moves the strings to a new table with the given number of
+     * slots, which drops the deleted slots.
+     */
+    private void rehash(long slots) {
+        DirectArray oldRefs = refs;
+        DirectArray oldHashes = hashes;
+        long oldSlots = mask + 1;
+
+        allocate(slots);
+        for (long j = 0; j < oldSlots; j++) {
+            long ref = oldRefs.getLong(j);
+            if (ref != EMPTY && ref != DELETED) {
+                long h = oldHashes.getLong(j);
+                long i = home(h, mask);
+                while (refs.getLong(i) != EMPTY)
+                    i = (i + 1) & mask;
+                refs.putLong(i, ref);
+                hashes.putLong(i, h);
+                used++;
+            }
+        }
+    }
+
+    /**
+     * A zeroed array of longs in direct ByteBuffers, which may have
+     * more than 2^31 elements.
+     */
+    private static final class DirectArray {
+        private static final int CHUNK_SHIFT = 27;
+        private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+        private final ByteBuffer[] chunks;
+
+        DirectArray(long length) {
+            long bytes = 8 * length;
+            chunks = new ByteBuffer[(int) ((bytes + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int c = 0; c < chunks.length; c++) {
+                long left = bytes - ((long) c << CHUNK_SHIFT);
+                chunks[c] = ByteBuffer.allocateDirect((int) Math.min(left, 1 << CHUNK_SHIFT))
+                        .order(ByteOrder.nativeOrder());
+            }
+        }
+
+        long getLong(long i) {
+            long b = 8 * i;
+            return chunks[(int) (b >>> CHUNK_SHIFT)].getLong((int) (b & CHUNK_MASK));
+        }
+
+        void putLong(long i, long x) {
+            long b = 8 * i;
+            chunks[(int) (b >>> CHUNK_SHIFT)].putLong((int) (b & CHUNK_MASK), x);
+        }
+    }
+}
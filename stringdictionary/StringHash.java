@@ -1,51 +1,112 @@
-import java.util.List;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * A hash table of strings.
- * 
+ *
+ * The table uses open addressing with linear probing over two
+ * parallel arrays: the strings and their hash codes. The hash codes
+ * are cached, so equals is only called for strings with the same hash
+ * code and the table is rehashed without calling hashCode again. The
+ * number of slots is a power of two, and the table doubles in size
+ * when the number of strings exceeds the load factor times the number
+ * of slots. Removals leave no tombstones.
+ *
  * @author Stefan Nilsson
  * @version 2010-07-21
  */
-public class StringHash implements StringDictionary {
-    private List<String>[] table;
+public class StringHash implements StringDictionary, Iterable<String> {
+    /**
+     * The load factor used if none is given.
+     */
+    public static final double DEFAULT_LOAD_FACTOR = 0.5;
+
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int BATCH = 256;    // strings hashed ahead in batch operations
+
+    private final double loadFactor;
+    private String[] table;   // null marks an empty slot
+    private int[] hashes;     // hashes[i] is the hash of table[i]
+    private int mask;         // table.length - 1
+    private int size;
+    private int maxSize;      // grow when size exceeds this
 
     /**
-     * Creates a hash table with the given capacity.
-     * 
+     * Creates a hash table that can hold the given number
+     * of strings without growing.
+     *
      * @throws IllegalArgumentException if capacity <= 0.
      */
     public StringHash(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a hash table that can hold the given number
+     * of strings without growing, and that grows when the
+     * ratio of strings to slots exceeds loadFactor.
+     *
+     * @throws IllegalArgumentException if capacity <= 0 or
+     *         loadFactor is not in the range (0, 1).
+     */
+    public StringHash(int capacity, double loadFactor) {
         if (capacity <= 0)
             throw new IllegalArgumentException("capacity=" + capacity);
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("loadFactor=" + loadFactor);
+
+        this.loadFactor = loadFactor;
+        allocate(tableSize(capacity, loadFactor));
+    }
+
+    /**
+     * Returns the smallest power of two number of slots
+     * that can hold n strings within the load factor.
+     */
+    private static int tableSize(int n, double loadFactor) {
+        double needed = Math.ceil(n / loadFactor) + 1;
+        int slots = MIN_CAPACITY;
+        while (slots < needed && slots < MAX_CAPACITY)
+            slots <<= 1;
+        return slots;
+    }
+
+    private void allocate(int slots) {
+        table = new String[slots];
+        hashes = new int[slots];
+        mask = slots - 1;
+        // Keep at least one slot empty, so that every probe ends.
+        maxSize = (int) Math.min(slots * loadFactor, slots - 1);
+    }
 
-        // We want to do the following:
-        //
-        //     table = new LinkedList<String>[capacity];
-        //
-        // However, that won't compile ("generic array creation")
-        // since Java generics and arrays don't get along very well.
-        // Instead we need to do the following:
-        //
-        //     table = new LinkedList[capacity];
-        //
-        // The above will compile, but with a warning. The proper
-        // approach is to document why the warning can be safely
-        // ignored and then suppress the warning. Thus:
-
-        /* 
-         * This array will contain only LinkedList<String>
-         * instances, all created in the add method. This
-         * is sufficient to ensure type safety.
-         */
-        @SuppressWarnings("unchecked") // for this declaration only
-        List<String>[] t = new LinkedList[capacity];
-
-        table = t;
-
-        for(int i = 0; i < table.length; i++) {
-            table[i] = new LinkedList<>();
+    /**
+     * Returns the hash code of s with its bits spread,
+     * so that the low bits used as index depend on all
+     * bits of the hash code.
+     */
+    private static int hash(String s) {
+        int h = s.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot that holds s, or -1 if s is not
+     * in the table.
+     */
+    private int find(String s, int h) {
+        for (int i = h & mask; table[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == h && table[i].equals(s))
+                return i;
         }
+        return -1;
+    }
+
+    /**
+     * Returns the number of strings in this dictionary.
+     */
+    public int size() {
+        return size;
     }
 
     /**
@@ -53,14 +114,101 @@ public class StringHash implements StringDictionary {
      * Returns <code>true</code> if the dictionary
      * did not already contain the given string.
      *
-     * Complexity: O(1) expected time.
+     * Complexity: O(1) expected time, amortized over
+     * the doublings of the table.
+     *
+     * @throws IllegalStateException if s is not present
+     *         and the table has reached its maximum size
+     *         and is full.
      */
     @Override
     public boolean add(String s) {
-        if(!contains(s)) {
-            return table[Math.abs(s.hashCode() % table.length)].add(s);
+        return add(s, hash(s));
+    }
+
+    /**
+     * Adds s, whose hash is h, with a single probe: the
+     * search for s ends either at s or at the empty slot
+     * where s is stored. The table is grown before the
+     * probe if one more string would exceed the load
+     * factor, even if s turns out to be present. A full
+     * table of the maximum size cannot grow, so only a
+     * string that is not present makes it throw.
+     */
+    private boolean add(String s, int h) {
+        if (size >= maxSize) {
+            if (table.length == MAX_CAPACITY) {
+                if (find(s, h) >= 0)
+                    return false;
+                throw new IllegalStateException("dictionary is full");
+            }
+            rehash(2 * table.length);
         }
-        return false;
+
+        int i = h & mask;
+        for (String t; (t = table[i]) != null; i = (i + 1) & mask) {
+            if (hashes[i] == h && t.equals(s))
+                return false;
+        }
+        table[i] = s;
+        hashes[i] = h;
+        size++;
+        return true;
+    }
+
+    /**
+     * Adds all the given strings to this dictionary.
+     * Returns the number of strings that were not
+     * already present. The hash codes are computed in
+     * batches ahead of the probes, which keeps the
+     * two loops short and lets their work overlap.
+     *
+     * @throws IllegalStateException if a string is not
+     *         present and the table has reached its maximum
+     *         size and is full.
+     */
+    public int addAll(String[] strings) {
+        int[] h = new int[Math.min(BATCH, strings.length)];
+        int added = 0;
+        for (int from = 0; from < strings.length; from += BATCH) {
+            int n = Math.min(BATCH, strings.length - from);
+            for (int k = 0; k < n; k++)
+                h[k] = hash(strings[from + k]);
+            for (int k = 0; k < n; k++) {
+                if (add(strings[from + k], h[k]))
+                    added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Returns <code>true</code> if all the given strings
+     * are in this dictionary.
+     */
+    public boolean containsAll(String[] strings) {
+        int[] h = new int[Math.min(BATCH, strings.length)];
+        for (int from = 0; from < strings.length; from += BATCH) {
+            int n = Math.min(BATCH, strings.length - from);
+            for (int k = 0; k < n; k++)
+                h[k] = hash(strings[from + k]);
+            for (int k = 0; k < n; k++) {
+                if (find(strings[from + k], h[k]) < 0)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grows the table, if needed, so that it can hold
+     * n strings without growing again. Use before adding
+     * many strings whose number is known.
+     */
+    public void ensureCapacity(int n) {
+        int slots = tableSize(n, loadFactor);
+        if (slots > table.length)
+            rehash(slots);
     }
 
     /**
@@ -72,7 +220,13 @@ public class StringHash implements StringDictionary {
      */
     @Override
     public boolean remove(String s) {
-        return table[Math.abs(s.hashCode()  % table.length)].remove(s);
+        int i = find(s, hash(s));
+        if (i < 0)
+            return false;
+
+        closeGap(i);
+        size--;
+        return true;
     }
 
     /**
@@ -83,6 +237,80 @@ public class StringHash implements StringDictionary {
      */
     @Override
     public boolean contains(String s) {
-        return table[Math.abs(s.hashCode()  % table.length)].contains(s);
+        return find(s, hash(s)) >= 0;
+    }
+
+    /**
+     * Empties slot gap by moving strings that follow it
+     * in the same cluster back into the gap, so that all
+     * remaining strings can still be found by probing
+     * from their home slot.
+     */
+    private void closeGap(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (table[i] == null)
+                break;
+            int home = hashes[i] & mask;
+            // The string at i may move to gap unless its
+            // home slot lies cyclically in (gap, i].
+            boolean stay = gap <= i ? gap < home && home <= i
+                                    : gap < home || home <= i;
+            if (!stay) {
+                table[gap] = table[i];
+                hashes[gap] = hashes[i];
+                gap = i;
+            }
+        }
+        table[gap] = null;
+    }
+
+    /**
+     * Returns an iterator over the strings in this
+     * dictionary, in no particular order. The table
+     * must not be changed during the iteration.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = advance(0);
+
+            private int advance(int i) {
+                while (i < table.length && table[i] == null)
+                    i++;
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < table.length;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                String s = table[next];
+                next = advance(next + 1);
+                return s;
+            }
+        };
+    }
+
+    private void rehash(int slots) {
+        String[] oldTable = table;
+        int[] oldHashes = hashes;
+
+        allocate(slots);
+        for (int j = 0; j < oldTable.length; j++) {
+            if (oldTable[j] != null) {
+                int i = oldHashes[j] & mask;
+                while (table[i] != null)
+                    i = (i + 1) & mask;
+                table[i] = oldTable[j];
+                hashes[i] = oldHashes[j];
+            }
+        }
     }
 }
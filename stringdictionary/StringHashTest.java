@@ -0,0 +1,59 @@
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Randomized test of StringHash against java.util.HashSet. Random adds,
+ * removes and lookups are drawn from a small set of keys, so that the
+ * table holds long clusters, removals move strings back into the gaps
+ * and the table grows several times. Run with java StringHashTest; it
+ * throws an AssertionError on the first result that differs.
+ *
+ * @author agent
+ * @version 2026-10-17
+ */
+public class StringHashTest {
+    private static final int OPERATIONS = 2_000_000;
+
+    public static void main(String[] args) {
+        Random rnd = new Random(42);
+        for (int keys : new int[] {10, 1000, 100_000}) {
+            for (double loadFactor : new double[] {0.25, StringHash.DEFAULT_LOAD_FACTOR, 0.9}) {
+                run(rnd, keys, loadFactor);
+            }
+        }
+        System.out.println("StringHashTest: passed");
+    }
+
+    private static void run(Random rnd, int keys, double loadFactor) {
+        StringHash dict = new StringHash(1, loadFactor);
+        Set<String> expected = new HashSet<>();
+        for (int op = 0; op < OPERATIONS; op++) {
+            String s = "key" + rnd.nextInt(keys);
+            switch (rnd.nextInt(3)) {
+                case 0:
+                    check(dict.add(s), expected.add(s), "add", s);
+                    break;
+                case 1:
+                    check(dict.remove(s), expected.remove(s), "remove", s);
+                    break;
+                default:
+                    check(dict.contains(s), expected.contains(s), "contains", s);
+                    break;
+            }
+            if (dict.size() != expected.size())
+                throw new AssertionError("size " + dict.size() + ", expected " + expected.size());
+        }
+
+        Set<String> iterated = new HashSet<>();
+        for (String s : dict)
+            iterated.add(s);
+        if (!iterated.equals(expected))
+            throw new AssertionError("iterator does not return the strings in the table");
+    }
+
+    private static void check(boolean actual, boolean expected, String op, String s) {
+        if (actual != expected)
+            throw new AssertionError(op + "(" + s + ") returned " + actual);
+    }
+}